@@ -0,0 +1,149 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 简单压测工具:登录后以固定并发持续请求指定接口,输出吞吐量和延迟分位数
+ *
+ * 用法: java -Dfile.encoding=UTF-8 bench/LoadBench.java [baseUrl] [path] [concurrency] [seconds] [username] [password]
+ * 示例: java bench/LoadBench.java http://localhost:8080 "/api/articles?page=1&size=10" 200 30 admin 123456
+ */
+public class LoadBench {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = arg(args, 0, "http://localhost:8080");
+        String path = arg(args, 1, "/api/articles?page=1&size=10");
+        int concurrency = Integer.parseInt(arg(args, 2, "200"));
+        int seconds = Integer.parseInt(arg(args, 3, "30"));
+        String username = arg(args, 4, "admin");
+        String password = arg(args, 5, "123456");
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String token;
+        try {
+            token = login(client, baseUrl, username, password);
+        } catch (Exception e) {
+            System.err.println("登录失败: " + e);
+            System.exit(1);
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET().build();
+
+        // 预热
+        runFor(client, request, concurrency, 5, null);
+
+        LatencyRecorder recorder = new LatencyRecorder(seconds * 20000);
+        Result result = runFor(client, request, concurrency, seconds, recorder);
+        long[] latencies = recorder.sorted();
+        System.out.printf("接口: %s, 并发: %d, 时长: %ds%n", path, concurrency, seconds);
+        System.out.printf("请求: %d, 失败: %d, 吞吐量: %.1f req/s%n",
+                result.ok + result.failed, result.failed, (result.ok + result.failed) / (double) seconds);
+        System.out.printf("延迟(ms): p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+        System.exit(0);
+    }
+
+    private static Result runFor(HttpClient client, HttpRequest request, int concurrency, int seconds,
+                                 LatencyRecorder recorder) throws InterruptedException {
+        AtomicLong ok = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            ok.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                    if (recorder != null) {
+                        recorder.record(System.nanoTime() - start);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 120L, TimeUnit.SECONDS);
+        return new Result(ok.get(), failed.get());
+    }
+
+    private static String login(HttpClient client, String baseUrl, String username, String password) throws Exception {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        String response = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"").matcher(response);
+        if (!matcher.find()) {
+            throw new IllegalStateException("登录失败: " + response);
+        }
+        return matcher.group(1);
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static String arg(String[] args, int index, String defaultValue) {
+        return args.length > index ? args[index] : defaultValue;
+    }
+
+    private record Result(long ok, long failed) {
+    }
+
+    /**
+     * 延迟采样,超出容量后按蓄水池抽样保留
+     */
+    private static final class LatencyRecorder {
+        private final long[] samples;
+        private final AtomicLong count = new AtomicLong();
+
+        private LatencyRecorder(int capacity) {
+            this.samples = new long[capacity];
+        }
+
+        private void record(long nanos) {
+            long n = count.getAndIncrement();
+            if (n < samples.length) {
+                samples[(int) n] = nanos;
+            } else {
+                long slot = java.util.concurrent.ThreadLocalRandom.current().nextLong(n + 1);
+                if (slot < samples.length) {
+                    samples[(int) slot] = nanos;
+                }
+            }
+        }
+
+        private long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, (int) Math.min(count.get(), samples.length));
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+#!/usr/bin/env bash
+# 对比平台线程和虚拟线程两种模式下的接口吞吐量和延迟
+# 需要 JDK 21、可用的MySQL(application-dev.yml中的连接配置)
+# 用法: bench/compare-thread-modes.sh [path] [concurrency] [seconds]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+BENCH_PATH="${1:-/api/articles?page=1&size=10}"
+CONCURRENCY="${2:-500}"
+SECONDS_TO_RUN="${3:-30}"
+PORT=18080
+# Tomcat平台线程数保持默认200,连接池与dev环境一致
+COMMON_ARGS="--server.port=${PORT} --mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl"
+
+mvn -B -q package -DskipTests -Pjava21
+JAR=$(ls target/react-admin-backend-*.jar | grep -v -- '-lib.jar$' | head -n 1)
+
+run_mode() {
+  local name="$1"
+  shift
+  echo "===== ${name} ====="
+  java -jar "${JAR}" ${COMMON_ARGS} "$@" > "target/bench-${name}.log" 2>&1 &
+  local pid=$!
+  trap "kill ${pid} 2>/dev/null || true" EXIT
+  for _ in $(seq 1 60); do
+    if curl -s -o /dev/null "http://localhost:${PORT}/api/chat/test"; then
+      break
+    fi
+    sleep 1
+  done
+  java -Dfile.encoding=UTF-8 bench/LoadBench.java "http://localhost:${PORT}" "${BENCH_PATH}" "${CONCURRENCY}" "${SECONDS_TO_RUN}"
+  kill "${pid}"
+  wait "${pid}" 2>/dev/null || true
+  trap - EXIT
+}
+
+run_mode platform --spring.threads.virtual.enabled=false
+run_mode virtual --spring.threads.virtual.enabled=true
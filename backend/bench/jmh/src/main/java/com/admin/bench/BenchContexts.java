@@ -0,0 +1,25 @@
+package com.admin.bench;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基准测试使用的最小Spring容器,只注册被测组件,配置项通过properties传入
+ */
+final class BenchContexts {
+
+    private BenchContexts() {
+    }
+
+    static AnnotationConfigApplicationContext create(Map<String, String> properties, Class<?>... componentClasses) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("bench", new HashMap<>(properties)));
+        context.register(componentClasses);
+        context.refresh();
+        return context;
+    }
+}
@@ -0,0 +1,76 @@
+package com.admin.bench;
+
+import com.admin.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT生成、验签解析和校验(命中验签缓存/伪造Token)的耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+
+    private JwtUtil jwtUtil;
+
+    private String token;
+
+    private String forgedToken;
+
+    @Setup
+    public void setUp() {
+        context = BenchContexts.create(Map.of(
+                "jwt.secret", "react-admin-secret-key-for-jwt-token-generation-2024",
+                "jwt.expiration", "604800000"), JwtUtil.class);
+        jwtUtil = context.getBean(JwtUtil.class);
+        token = jwtUtil.generateToken(1L, "admin", "ADMIN");
+        // 篡改签名的最后一个字符,每次都需要完整验签且不会进入缓存
+        char last = token.charAt(token.length() - 1);
+        forgedToken = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+        jwtUtil.validateToken(token);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(1L, "admin", "ADMIN");
+    }
+
+    @Benchmark
+    public Object parseToken() {
+        return jwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public boolean validateTokenCached() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean validateTokenForged() {
+        return jwtUtil.validateToken(forgedToken);
+    }
+}
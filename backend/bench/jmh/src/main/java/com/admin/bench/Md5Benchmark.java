@@ -0,0 +1,43 @@
+package com.admin.bench;
+
+import com.admin.util.Md5Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录密码MD5摘要的耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Md5Benchmark {
+
+    @Param({"6", "64"})
+    private int length;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        input = "1234567890".repeat(length / 10 + 1).substring(0, length);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return Md5Util.encrypt(input);
+    }
+}
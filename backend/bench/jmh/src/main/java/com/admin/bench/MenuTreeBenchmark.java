@@ -0,0 +1,79 @@
+package com.admin.bench;
+
+import com.admin.entity.Menu;
+import com.admin.util.MenuTreeBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 菜单树构建(菜单变更后重建)和按用户权限裁剪(每次获取用户菜单)的耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MenuTreeBenchmark {
+
+    /**
+     * 每个节点的子菜单数
+     */
+    private static final int FAN_OUT = 10;
+
+    @Param({"100", "1000", "10000"})
+    private int menus;
+
+    private List<Menu> flat;
+
+    private List<Menu> tree;
+
+    private Set<Long> allowedMenuIds;
+
+    @Setup
+    public void setUp() {
+        flat = new ArrayList<>(menus);
+        allowedMenuIds = new HashSet<>();
+        for (long id = 1; id <= menus; id++) {
+            Menu menu = new Menu();
+            menu.setId(id);
+            menu.setParentId(id <= FAN_OUT ? 0L : (id - 1) / FAN_OUT);
+            menu.setTitle("菜单" + id);
+            menu.setPath("/menu/" + id);
+            menu.setSortOrder((int) (id % FAN_OUT));
+            menu.setType(id % 3 == 0 ? "button" : "menu");
+            menu.setPermission("menu:" + id);
+            flat.add(menu);
+            if (id % 2 == 1) {
+                allowedMenuIds.add(id);
+            }
+        }
+        tree = MenuTreeBuilder.build(flat);
+    }
+
+    @Benchmark
+    public List<Menu> build() {
+        return MenuTreeBuilder.build(flat);
+    }
+
+    @Benchmark
+    public List<Menu> prune() {
+        return MenuTreeBuilder.prune(tree,
+                menu -> "menu".equals(menu.getType()) && allowedMenuIds.contains(menu.getId()));
+    }
+}
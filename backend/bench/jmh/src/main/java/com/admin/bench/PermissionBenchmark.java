@@ -0,0 +1,177 @@
+package com.admin.bench;
+
+import com.admin.cache.PermissionCache;
+import com.admin.cache.PermissionIndex;
+import com.admin.service.MenuService;
+import com.admin.service.PermissionService;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import org.mybatis.spring.annotation.MapperScan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 权限判断的耗时
+ * 使用H2内存数据库:200个权限标识、10个角色(各分配80个权限)、1000个用户(各2个角色)。
+ * cached为每次请求的常规路径(用户快照和权限位图已缓存);reload为用户快照失效后从数据库重新加载。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermissionBenchmark {
+
+    private static final int PERMISSIONS = 200;
+
+    private static final int ROLES = 10;
+
+    private static final int PERMISSIONS_PER_ROLE = 80;
+
+    private static final int USERS = 1000;
+
+    private AnnotationConfigApplicationContext context;
+
+    private PermissionService permissionService;
+
+    private PermissionCache permissionCache;
+
+    private long userId;
+
+    private String granted;
+
+    private String denied;
+
+    private long nextUserId;
+
+    @Setup
+    public void setUp() {
+        context = BenchContexts.create(Map.of(), Config.class);
+        seed(context.getBean(JdbcTemplate.class));
+        permissionService = context.getBean(PermissionService.class);
+        permissionCache = context.getBean(PermissionCache.class);
+
+        userId = 1;
+        granted = null;
+        denied = null;
+        for (int i = 1; i <= PERMISSIONS && (granted == null || denied == null); i++) {
+            String permission = "perm:" + i;
+            if (permissionService.hasPermission(userId, permission)) {
+                granted = granted == null ? permission : granted;
+            } else {
+                denied = denied == null ? permission : denied;
+            }
+        }
+        for (long id = 1; id <= USERS; id++) {
+            permissionService.hasPermission(id, granted);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean cachedGranted() {
+        return permissionService.hasPermission(userId, granted);
+    }
+
+    @Benchmark
+    public boolean cachedDenied() {
+        return permissionService.hasPermission(userId, denied);
+    }
+
+    @Benchmark
+    public boolean cachedUnknownPermission() {
+        return permissionService.hasPermission(userId, "perm:unknown");
+    }
+
+    @Benchmark
+    public boolean reload() {
+        long id = nextUserId++ % USERS + 1;
+        permissionCache.evictUser(id);
+        return permissionService.hasPermission(id, granted);
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        Random random = new Random(42);
+        List<Object[]> menus = new ArrayList<>();
+        for (int i = 1; i <= PERMISSIONS; i++) {
+            menus.add(new Object[]{(long) i, 0L, "权限" + i, i, "button", "perm:" + i});
+        }
+        jdbc.batchUpdate("INSERT INTO sys_menu (id, parent_id, title, sort_order, type, permission) VALUES (?, ?, ?, ?, ?, ?)", menus);
+
+        List<Object[]> roleMenus = new ArrayList<>();
+        for (long roleId = 1; roleId <= ROLES; roleId++) {
+            for (int menuId : random.ints(1, PERMISSIONS + 1).distinct().limit(PERMISSIONS_PER_ROLE).toArray()) {
+                roleMenus.add(new Object[]{roleId, (long) menuId});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO sys_role_menu (role_id, menu_id) VALUES (?, ?)", roleMenus);
+
+        List<Object[]> userRoles = new ArrayList<>();
+        for (long userId = 1; userId <= USERS; userId++) {
+            userRoles.add(new Object[]{userId, userId % ROLES + 1});
+            userRoles.add(new Object[]{userId, (userId + 3) % ROLES + 1});
+        }
+        jdbc.batchUpdate("INSERT INTO sys_user_role (user_id, role_id) VALUES (?, ?)", userRoles);
+    }
+
+    /**
+     * 权限相关组件 + H2内存数据源 + MyBatis-Plus
+     */
+    @Configuration
+    @MapperScan("com.admin.mapper")
+    @Import({PermissionService.class, MenuService.class, PermissionIndex.class, PermissionCache.class})
+    static class Config {
+
+        @Bean
+        public DataSource dataSource() {
+            return new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .setName("bench;MODE=MySQL")
+                    .addScript("bench-schema.sql")
+                    .build();
+        }
+
+        @Bean
+        public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        public MybatisSqlSessionFactoryBean sqlSessionFactory(DataSource dataSource) {
+            MybatisConfiguration configuration = new MybatisConfiguration();
+            configuration.setMapUnderscoreToCamelCase(true);
+            MybatisSqlSessionFactoryBean factory = new MybatisSqlSessionFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setConfiguration(configuration);
+            return factory;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+-- 权限基准测试使用的表结构(与data.sql中的对应表一致)
+CREATE TABLE sys_menu (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  parent_id BIGINT DEFAULT 0,
+  title VARCHAR(50) NOT NULL,
+  path VARCHAR(200),
+  icon VARCHAR(50),
+  sort_order INT DEFAULT 0,
+  keep_alive TINYINT DEFAULT 0,
+  type VARCHAR(20) DEFAULT 'menu',
+  permission VARCHAR(100),
+  create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+  update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE sys_role_menu (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  role_id BIGINT NOT NULL,
+  menu_id BIGINT NOT NULL,
+  UNIQUE KEY uk_role_menu (role_id, menu_id)
+);
+
+CREATE TABLE sys_user_role (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+  role_id BIGINT NOT NULL,
+  UNIQUE KEY uk_user_role (user_id, role_id)
+);
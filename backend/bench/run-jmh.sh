@@ -0,0 +1,15 @@
+#!/usr/bin/env bash
+# 运行认证与权限热点路径的JMH基准测试,结果以JSON格式写入 target/jmh-result.json
+# 不需要MySQL(权限基准测试使用H2内存数据库)
+# 用法: bench/run-jmh.sh [JMH参数],如 bench/run-jmh.sh Permission -f 1
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RESULT="${JMH_RESULT:-target/jmh-result.json}"
+
+# 安装后端的普通jar(classifier=lib),基准测试模块依赖它
+mvn -B -q install -DskipTests
+mvn -B -q -f bench/jmh/pom.xml package
+
+java -Dfile.encoding=UTF-8 -jar bench/jmh/target/benchmarks.jar -rf json -rff "${RESULT}" "$@"
+echo "结果已写入 ${RESULT}"
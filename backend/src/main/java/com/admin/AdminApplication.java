@@ -1,21 +1,22 @@
 package com.admin;
 
+import lombok.extern.slf4j.Slf4j;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 /**
  * Spring Boot 应用主入口
  */
+@Slf4j
 @SpringBootApplication
 @MapperScan("com.admin.mapper")
 public class AdminApplication {
     
     public static void main(String[] args) {
-        SpringApplication.run(AdminApplication.class, args);
-        System.out.println("========================================");
-        System.out.println("React Admin Backend 启动成功!");
-        System.out.println("服务地址: http://localhost:8080");
-        System.out.println("========================================");
+        ConfigurableApplicationContext context = SpringApplication.run(AdminApplication.class, args);
+        log.info("React Admin Backend 启动成功! 服务地址: http://localhost:{}",
+                context.getEnvironment().getProperty("local.server.port", "8080"));
     }
 }
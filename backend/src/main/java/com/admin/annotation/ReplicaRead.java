@@ -0,0 +1,17 @@
+package com.admin.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 只读副本路由注解
+ * 用于Service方法或类上,方法内的查询在开启读写分离时走只读副本;
+ * 已在写事务中、本次请求已写过数据或副本延迟超限时仍走主库。
+ * 标注 @Transactional(readOnly = true) 的方法同样走只读副本,无需重复标注
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+}
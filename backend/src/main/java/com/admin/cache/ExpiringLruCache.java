@@ -0,0 +1,99 @@
+package com.admin.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * 带过期时间的LRU缓存
+ * 容量超限时淘汰最久未访问的条目,每个条目可单独指定过期时间点
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final int maxSize;
+
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    public ExpiringLruCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > ExpiringLruCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * 获取缓存值,不存在或已过期返回null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireAt <= System.currentTimeMillis()) {
+            map.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * 放入缓存
+     *
+     * @param expireAt 过期时间点(毫秒时间戳)
+     */
+    public synchronized void put(K key, V value, long expireAt) {
+        map.put(key, new Entry<>(value, expireAt));
+    }
+
+    /**
+     * 条件成立时放入缓存,条件判断与写入在同一把锁内完成
+     *
+     * @return 是否已放入
+     */
+    public synchronized boolean putIf(K key, V value, long expireAt, BooleanSupplier condition) {
+        if (!condition.getAsBoolean()) {
+            return false;
+        }
+        map.put(key, new Entry<>(value, expireAt));
+        return true;
+    }
+
+    public synchronized void remove(K key) {
+        map.remove(key);
+    }
+
+    /**
+     * 移除所有值满足条件的条目
+     */
+    public synchronized void removeIf(Predicate<V> predicate) {
+        Iterator<Entry<V>> it = map.values().iterator();
+        while (it.hasNext()) {
+            if (predicate.test(it.next().value)) {
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expireAt;
+
+        private Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
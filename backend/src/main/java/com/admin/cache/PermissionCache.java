@@ -0,0 +1,65 @@
+package com.admin.cache;
+
+import com.admin.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 用户权限快照缓存
+ * 按用户ID缓存权限快照,容量有上限并带TTL;用户角色变更时精确失效。
+ * 角色与菜单的权限变更由 {@link PermissionIndex} 增量维护,无需失效用户快照
+ */
+@Component
+public class PermissionCache {
+
+    @Value("${permission.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${permission.cache.ttl:600000}")
+    private long ttl;
+
+    private ExpiringLruCache<Long, PermissionSnapshot> cache;
+
+    /**
+     * 失效代数,每次失效递增;加载期间发生过失效的结果不写入缓存,避免回填旧数据
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cache = new ExpiringLruCache<>(maxSize);
+    }
+
+    /**
+     * 获取用户权限快照,未命中时通过loader加载
+     */
+    public PermissionSnapshot get(Long userId, Function<Long, PermissionSnapshot> loader) {
+        PermissionSnapshot snapshot = cache.get(userId);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        long gen = generation.get();
+        snapshot = loader.apply(userId);
+        // 代数检查与写入在缓存锁内原子执行:失效先递增代数再移除条目,不会在检查之后、写入之前插入
+        cache.putIf(userId, snapshot, System.currentTimeMillis() + ttl, () -> gen == generation.get());
+        return snapshot;
+    }
+
+    /**
+     * 失效指定用户的快照(用户角色变更、删除用户)
+     */
+    public void evictUser(Long userId) {
+        afterCommit(() -> cache.remove(userId));
+    }
+
+    private void afterCommit(Runnable eviction) {
+        TransactionUtils.afterCommit(() -> {
+            generation.incrementAndGet();
+            eviction.run();
+        });
+    }
+}
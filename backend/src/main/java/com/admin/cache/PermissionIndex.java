@@ -0,0 +1,345 @@
+package com.admin.cache;
+
+import com.admin.entity.Menu;
+import com.admin.entity.RoleMenu;
+import com.admin.mapper.MenuMapper;
+import com.admin.mapper.RoleMenuMapper;
+import com.admin.util.TransactionUtils;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * 角色权限位图索引
+ * 每个权限标识映射为一个整数ID,每个角色的授权压缩为long[]位图;
+ * 用户的有效权限为其所有角色位图的按位或,权限判断只需位运算。
+ * 索引整体不可变,变更时复制后整体替换,读操作无锁。
+ * 本机的变更在事务提交后增量刷新;其他实例的变更由定时重建发现,最迟在一个刷新间隔后生效。
+ */
+@Slf4j
+@Component
+public class PermissionIndex {
+
+    private static final long[] EMPTY_BITS = new long[0];
+
+    @Autowired
+    private MenuMapper menuMapper;
+
+    @Autowired
+    private RoleMenuMapper roleMenuMapper;
+
+    private volatile State state;
+
+    /**
+     * 启动时预热索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("权限索引预热失败,将在首次使用时构建: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定时从数据库重建索引,发现其他实例修改的角色和菜单权限
+     */
+    @Scheduled(fixedDelayString = "${permission.index.refresh-interval:60000}")
+    public void refresh() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("权限索引定时重建失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从数据库全量重建索引;与当前索引一致时保留原索引,版本号不变
+     */
+    public synchronized void rebuild() {
+        List<Menu> menus = menuMapper.selectList(new QueryWrapper<Menu>().select("id", "permission"));
+        List<RoleMenu> roleMenus = roleMenuMapper.selectList(null);
+
+        Map<String, Integer> permissionIds = new HashMap<>();
+        List<String> permissions = new ArrayList<>();
+        Map<Long, Integer> menuPermissions = new HashMap<>();
+        for (Menu menu : menus) {
+            String permission = menu.getPermission();
+            if (permission != null && !permission.isEmpty()) {
+                menuPermissions.put(menu.getId(), intern(permission, permissionIds, permissions));
+            }
+        }
+
+        Map<Long, Set<Long>> roleMenuIds = new HashMap<>();
+        for (RoleMenu roleMenu : roleMenus) {
+            roleMenuIds.computeIfAbsent(roleMenu.getRoleId(), k -> new HashSet<>()).add(roleMenu.getMenuId());
+        }
+
+        Map<Long, Set<Long>> frozen = new HashMap<>();
+        roleMenuIds.forEach((roleId, menuIds) -> frozen.put(roleId, Set.copyOf(menuIds)));
+        State current = state;
+        if (current != null && current.roleMenuIds.equals(frozen)
+                && current.menuPermissionNames().equals(menuPermissionNames(menuPermissions, permissions))) {
+            return;
+        }
+
+        long version = current == null ? 1 : current.version + 1;
+        Map<Long, long[]> roleBits = new HashMap<>();
+        frozen.forEach((roleId, menuIds) -> roleBits.put(roleId, compile(menuIds, menuPermissions)));
+        state = new State(version, permissionIds, permissions, menuPermissions, frozen, roleBits);
+        log.info("权限索引构建完成: {} 个权限标识, {} 个角色", permissions.size(), roleMenuIds.size());
+    }
+
+    /**
+     * 角色的菜单分配变更后刷新该角色的位图
+     */
+    public void refreshRole(Long roleId) {
+        TransactionUtils.afterCommit(() -> doRefreshRole(roleId));
+    }
+
+    /**
+     * 删除角色后移除该角色的位图
+     */
+    public void removeRole(Long roleId) {
+        TransactionUtils.afterCommit(() -> update(s -> s.withRole(roleId, null)));
+    }
+
+    /**
+     * 菜单新增或更新后重新登记其权限标识
+     */
+    public void refreshMenu(Long menuId) {
+        TransactionUtils.afterCommit(() -> doRefreshMenu(menuId));
+    }
+
+    /**
+     * 删除菜单后移除其权限标识映射
+     */
+    public void removeMenu(Long menuId) {
+        TransactionUtils.afterCommit(() -> update(s -> {
+            Map<Long, Integer> menuPermissions = new HashMap<>(s.menuPermissions);
+            menuPermissions.remove(menuId);
+            return s.withMenu(menuId, s.permissionIds, s.permissions, menuPermissions);
+        }));
+    }
+
+    /**
+     * 权限标识对应的整数ID,未知权限返回-1
+     */
+    public int idOf(String permission) {
+        Integer id = state().permissionIds.get(permission);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * 索引版本号,每次变更递增
+     */
+    public long version() {
+        return state().version;
+    }
+
+    /**
+     * 计算多个角色的有效权限位图(按位或)
+     */
+    public long[] union(Set<Long> roleIds) {
+        State s = state();
+        long[] result = EMPTY_BITS;
+        for (Long roleId : roleIds) {
+            long[] bits = s.roleBits(roleId);
+            if (bits.length > result.length) {
+                long[] grown = new long[bits.length];
+                System.arraycopy(result, 0, grown, 0, result.length);
+                result = grown;
+            }
+            for (int i = 0; i < bits.length; i++) {
+                result[i] |= bits[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 多个角色可访问的菜单ID集合
+     */
+    public Set<Long> menuIdsOf(Set<Long> roleIds) {
+        State s = state();
+        Set<Long> menuIds = new HashSet<>();
+        for (Long roleId : roleIds) {
+            menuIds.addAll(s.roleMenuIds.getOrDefault(roleId, Set.of()));
+        }
+        return menuIds;
+    }
+
+    /**
+     * 将位图还原为权限标识列表
+     */
+    public List<String> permissionsOf(long[] bits) {
+        State s = state();
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < s.permissions.size(); i++) {
+            if (test(bits, i)) {
+                result.add(s.permissions.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 判断位图中是否设置了指定权限位
+     */
+    public static boolean test(long[] bits, int id) {
+        int word = id >>> 6;
+        return id >= 0 && word < bits.length && (bits[word] & (1L << id)) != 0;
+    }
+
+    private State state() {
+        State s = state;
+        if (s == null) {
+            synchronized (this) {
+                if (state == null) {
+                    rebuild();
+                }
+                s = state;
+            }
+        }
+        return s;
+    }
+
+    private void doRefreshRole(Long roleId) {
+        Set<Long> menuIds = roleMenuMapper.selectList(new QueryWrapper<RoleMenu>().eq("role_id", roleId))
+                .stream().map(RoleMenu::getMenuId).collect(Collectors.toUnmodifiableSet());
+        update(s -> s.withRole(roleId, menuIds));
+    }
+
+    private void doRefreshMenu(Long menuId) {
+        Menu menu = menuMapper.selectById(menuId);
+        update(s -> {
+            Map<String, Integer> permissionIds = new HashMap<>(s.permissionIds);
+            List<String> permissions = new ArrayList<>(s.permissions);
+            Map<Long, Integer> menuPermissions = new HashMap<>(s.menuPermissions);
+            if (menu == null || menu.getPermission() == null || menu.getPermission().isEmpty()) {
+                menuPermissions.remove(menuId);
+            } else {
+                menuPermissions.put(menuId, intern(menu.getPermission(), permissionIds, permissions));
+            }
+            return s.withMenu(menuId, permissionIds, permissions, menuPermissions);
+        });
+    }
+
+    private synchronized void update(UnaryOperator<State> change) {
+        state = change.apply(state());
+    }
+
+    private static int intern(String permission, Map<String, Integer> permissionIds, List<String> permissions) {
+        return permissionIds.computeIfAbsent(permission, p -> {
+            permissions.add(p);
+            return permissions.size() - 1;
+        });
+    }
+
+    /**
+     * 菜单ID -> 权限标识,用于比较两个索引的内容(权限ID的分配顺序可能不同)
+     */
+    private static Map<Long, String> menuPermissionNames(Map<Long, Integer> menuPermissions, List<String> permissions) {
+        Map<Long, String> names = new HashMap<>();
+        menuPermissions.forEach((menuId, id) -> names.put(menuId, permissions.get(id)));
+        return names;
+    }
+
+    /**
+     * 将角色的菜单集合编译为权限位图
+     */
+    private static long[] compile(Set<Long> menuIds, Map<Long, Integer> menuPermissions) {
+        int max = -1;
+        for (Long menuId : menuIds) {
+            Integer id = menuPermissions.get(menuId);
+            if (id != null && id > max) {
+                max = id;
+            }
+        }
+        long[] bits = new long[(max + 64) >>> 6];
+        for (Long menuId : menuIds) {
+            Integer id = menuPermissions.get(menuId);
+            if (id != null) {
+                bits[id >>> 6] |= 1L << id;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * 索引快照
+     */
+    private static final class State {
+        private final long version;
+        private final Map<String, Integer> permissionIds;
+        private final List<String> permissions;
+        private final Map<Long, Integer> menuPermissions;
+        private final Map<Long, Set<Long>> roleMenuIds;
+        private final Map<Long, long[]> roleBits;
+
+        private State(long version, Map<String, Integer> permissionIds, List<String> permissions,
+                      Map<Long, Integer> menuPermissions, Map<Long, Set<Long>> roleMenuIds,
+                      Map<Long, long[]> roleBits) {
+            this.version = version;
+            this.permissionIds = Collections.unmodifiableMap(permissionIds);
+            this.permissions = Collections.unmodifiableList(permissions);
+            this.menuPermissions = Collections.unmodifiableMap(menuPermissions);
+            this.roleMenuIds = Collections.unmodifiableMap(roleMenuIds);
+            this.roleBits = Collections.unmodifiableMap(roleBits);
+        }
+
+        /**
+         * 替换单个角色的菜单集合,只重新编译该角色;menuIds为null表示移除角色
+         */
+        private State withRole(Long roleId, Set<Long> menuIds) {
+            Map<Long, Set<Long>> newRoleMenuIds = new HashMap<>(roleMenuIds);
+            Map<Long, long[]> newRoleBits = new HashMap<>(roleBits);
+            if (menuIds == null) {
+                newRoleMenuIds.remove(roleId);
+                newRoleBits.remove(roleId);
+            } else {
+                newRoleMenuIds.put(roleId, menuIds);
+                newRoleBits.put(roleId, compile(menuIds, menuPermissions));
+            }
+            return new State(version + 1, permissionIds, permissions, menuPermissions, newRoleMenuIds, newRoleBits);
+        }
+
+        /**
+         * 单个菜单的权限映射变化,只重新编译包含该菜单的角色
+         */
+        private State withMenu(Long menuId, Map<String, Integer> newPermissionIds, List<String> newPermissions,
+                               Map<Long, Integer> newMenuPermissions) {
+            Map<Long, long[]> newRoleBits = new HashMap<>(roleBits);
+            roleMenuIds.forEach((roleId, menuIds) -> {
+                if (menuIds.contains(menuId)) {
+                    newRoleBits.put(roleId, compile(menuIds, newMenuPermissions));
+                }
+            });
+            return new State(version + 1, newPermissionIds, newPermissions, newMenuPermissions, roleMenuIds, newRoleBits);
+        }
+
+        private Map<Long, String> menuPermissionNames() {
+            return PermissionIndex.menuPermissionNames(menuPermissions, permissions);
+        }
+
+        private long[] roleBits(Long roleId) {
+            long[] bits = roleBits.get(roleId);
+            return bits == null ? EMPTY_BITS : bits;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.admin.cache;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 用户权限快照
+ * 记录用户的角色ID,并按权限索引版本缓存角色位图按位或后的有效权限
+ */
+public final class PermissionSnapshot {
+
+    public static final PermissionSnapshot EMPTY = new PermissionSnapshot(Set.of());
+
+    @Getter
+    private final Set<Long> roleIds;
+
+    private volatile Bits bits;
+
+    public PermissionSnapshot(Collection<Long> roleIds) {
+        this.roleIds = Set.copyOf(roleIds);
+    }
+
+    /**
+     * 获取有效权限位图,索引版本变化时重新计算
+     */
+    public long[] effectiveBits(PermissionIndex index) {
+        long version = index.version();
+        Bits current = bits;
+        if (current == null || current.version != version) {
+            current = new Bits(version, index.union(roleIds));
+            bits = current;
+        }
+        return current.words;
+    }
+
+    private static final class Bits {
+        private final long version;
+        private final long[] words;
+
+        private Bits(long version, long[] words) {
+            this.version = version;
+            this.words = words;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.admin.cache;
+
+import com.admin.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * 列表总数缓存
+ * 按(表, 搜索关键字)缓存 COUNT(*) 结果,分页翻页时不再重复统计;
+ * 本机写入后按表失效,其他实例的写入最多滞后一个TTL
+ */
+@Component
+public class RowCountCache {
+
+    @Value("${paging.count-cache.max-size:1000}")
+    private int maxSize;
+
+    @Value("${paging.count-cache.ttl:30000}")
+    private long ttl;
+
+    private ExpiringLruCache<Key, Count> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new ExpiringLruCache<>(maxSize);
+    }
+
+    /**
+     * 获取总数,未命中时通过counter统计
+     */
+    public long get(String table, String keyword, LongSupplier counter) {
+        Key key = new Key(table, keyword == null ? "" : keyword);
+        Count count = cache.get(key);
+        if (count != null) {
+            return count.value;
+        }
+        long value = counter.getAsLong();
+        cache.put(key, new Count(table, value), System.currentTimeMillis() + ttl);
+        return value;
+    }
+
+    /**
+     * 失效指定表的所有总数(新增、修改、删除后调用)
+     */
+    public void evict(String table) {
+        TransactionUtils.afterCommit(() -> cache.removeIf(count -> count.table.equals(table)));
+    }
+
+    private static final class Key {
+        private final String table;
+        private final String keyword;
+
+        private Key(String table, String keyword) {
+            this.table = table;
+            this.keyword = keyword;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && table.equals(other.table) && keyword.equals(other.keyword);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(table, keyword);
+        }
+    }
+
+    private static final class Count {
+        private final String table;
+        private final long value;
+
+        private Count(String table, long value) {
+            this.table = table;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.admin.chat;
+
+import com.admin.entity.ChatMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 公共聊天室尾部缓存
+ * 缓存最近N条已落库的消息,"加载最新消息"及其附近的翻页直接从内存返回;
+ * 消息由 {@link ChatMessageWriter} 写库成功后追加。
+ * relay模式下其他实例写入的消息不会追加到本机缓存,此时不启用缓存,历史消息全部查库
+ */
+@Component
+public class ChatHistoryCache {
+
+    /**
+     * 按(发送时间, ID)排序,与数据库分页顺序一致
+     */
+    public static final Comparator<ChatMessage> ORDER =
+            Comparator.comparing(ChatMessage::getSendTime).thenComparing(ChatMessage::getId);
+
+    @Value("${chat.history.tail-size:100}")
+    private int tailSize;
+
+    /**
+     * 尾部消息,首次查询最新一页时初始化
+     */
+    private Tail tail;
+
+    /**
+     * 追加次数,加载期间发生过追加的结果不写入缓存,避免覆盖新消息
+     */
+    private long generation;
+
+    /**
+     * 是否启用缓存(多实例relay模式下关闭)
+     */
+    private final boolean enabled;
+
+    public ChatHistoryCache(@Value("${chat.broker.mode:simple}") String brokerMode) {
+        this.enabled = !"relay".equals(brokerMode);
+    }
+
+    public int getTailSize() {
+        return tailSize;
+    }
+
+    /**
+     * 已写入数据库的消息追加到尾部
+     */
+    public synchronized void append(List<ChatMessage> messages) {
+        if (!enabled) {
+            return;
+        }
+        generation++;
+        if (tail != null) {
+            for (ChatMessage message : messages) {
+                tail.add(message);
+            }
+        }
+    }
+
+    /**
+     * 从缓存读取游标之前最多limit条消息(按时间倒序);缓存无法完整回答时返回null
+     */
+    public synchronized List<ChatMessage> before(LocalDateTime beforeTime, Long beforeId, int limit) {
+        if (tail == null) {
+            return null;
+        }
+        List<ChatMessage> result = new ArrayList<>(limit);
+        Iterator<ChatMessage> it = tail.messages.descendingIterator();
+        while (it.hasNext() && result.size() < limit) {
+            ChatMessage message = it.next();
+            if (beforeTime == null || isBefore(message, beforeTime, beforeId)) {
+                result.add(message);
+            }
+        }
+        // 缓存中的消息不够且还有更早的消息,需要查库
+        if (result.size() < limit && !tail.complete) {
+            return null;
+        }
+        return result;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * 用数据库查询到的最新消息(按时间倒序)初始化缓存
+     *
+     * @param gen 查询前获取的 {@link #generation()}
+     */
+    public synchronized void load(List<ChatMessage> latest, long gen) {
+        if (!enabled || gen != generation) {
+            return;
+        }
+        Tail loaded = new Tail(latest.size() < tailSize);
+        for (int i = Math.min(latest.size(), tailSize) - 1; i >= 0; i--) {
+            loaded.messages.addLast(latest.get(i));
+        }
+        tail = loaded;
+    }
+
+    private static boolean isBefore(ChatMessage message, LocalDateTime beforeTime, Long beforeId) {
+        int cmp = message.getSendTime().compareTo(beforeTime);
+        return cmp < 0 || (cmp == 0 && beforeId != null && message.getId() < beforeId);
+    }
+
+    /**
+     * 尾部消息(按时间正序)
+     */
+    private final class Tail {
+        private final ArrayDeque<ChatMessage> messages = new ArrayDeque<>();
+
+        /**
+         * 是否包含全部消息
+         */
+        private boolean complete;
+
+        private Tail(boolean complete) {
+            this.complete = complete;
+        }
+
+        private void add(ChatMessage message) {
+            if (messages.isEmpty() || ORDER.compare(messages.peekLast(), message) <= 0) {
+                messages.addLast(message);
+            } else {
+                // 同步写入的消息可能晚于批量写入到达,按顺序插入
+                List<ChatMessage> later = new ArrayList<>();
+                while (!messages.isEmpty() && ORDER.compare(messages.peekLast(), message) > 0) {
+                    later.add(messages.pollLast());
+                }
+                messages.addLast(message);
+                for (int i = later.size() - 1; i >= 0; i--) {
+                    messages.addLast(later.get(i));
+                }
+            }
+            while (messages.size() > tailSize) {
+                messages.pollFirst();
+                complete = false;
+            }
+        }
+    }
+}
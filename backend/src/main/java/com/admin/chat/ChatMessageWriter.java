@@ -0,0 +1,151 @@
+package com.admin.chat;
+
+import com.admin.entity.ChatMessage;
+import com.admin.mapper.ChatMessageMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 聊天消息异步写入器
+ * 消息先进入有界队列,由单独的写线程按批量大小或时间阈值合并为多行INSERT落库;
+ * 队列满时等待一段时间,仍然写不进去则在调用线程同步写入,形成背压而不丢消息。
+ * 应用关闭时写完队列中剩余的消息。写库成功的消息追加到 {@link ChatHistoryCache}。
+ */
+@Slf4j
+@Component
+public class ChatMessageWriter {
+
+    @Autowired
+    private ChatMessageMapper chatMessageMapper;
+
+    @Autowired
+    private ChatHistoryCache chatHistoryCache;
+
+    @Value("${chat.persist.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chat.persist.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chat.persist.flush-interval:200}")
+    private long flushInterval;
+
+    @Value("${chat.persist.offer-timeout:50}")
+    private long offerTimeout;
+
+    private BlockingQueue<ChatMessage> queue;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::runLoop, "chat-message-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 提交消息,正常情况下立即返回
+     */
+    public void submit(ChatMessage message) {
+        try {
+            if (running && queue.offer(message, offerTimeout, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 队列持续满载或已关闭:在调用线程同步写入
+        log.warn("聊天消息队列已满,同步写入");
+        write(List.of(message));
+    }
+
+    /**
+     * 当前排队的消息数
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // 写线程退出后把剩余消息写完
+        List<ChatMessage> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int i = 0; i < rest.size(); i += batchSize) {
+            write(rest.subList(i, Math.min(i + batchSize, rest.size())));
+        }
+    }
+
+    private void runLoop() {
+        List<ChatMessage> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                ChatMessage first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 等待凑批,直到达到批量大小或时间阈值
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    ChatMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // 关闭时中断,已取出的消息仍需写入
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 批量写入,失败时逐条重试以隔离问题数据
+     */
+    private void write(List<ChatMessage> batch) {
+        try {
+            chatMessageMapper.insertBatch(batch);
+            chatHistoryCache.append(batch);
+        } catch (Exception e) {
+            log.error("批量保存聊天消息失败,逐条重试: {} 条, {}", batch.size(), e.getMessage());
+            List<ChatMessage> saved = new ArrayList<>(batch.size());
+            for (ChatMessage message : batch) {
+                try {
+                    chatMessageMapper.insert(message);
+                    saved.add(message);
+                } catch (Exception ex) {
+                    log.error("保存聊天消息失败: {}", ex.getMessage());
+                }
+            }
+            chatHistoryCache.append(saved);
+        }
+    }
+}
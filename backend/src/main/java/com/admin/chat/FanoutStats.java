@@ -0,0 +1,150 @@
+package com.admin.chat;
+
+import com.admin.dto.BrokerStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 消息扇出统计
+ * 记录每条广播消息投递的订阅者数量和扇出耗时(查找订阅者并投递到各会话出站通道)。
+ * 进程内代理通过broker通道和客户端出站通道的拦截器采集,回环代理在投递时直接记录。
+ */
+@Slf4j
+@Component
+public class FanoutStats implements MeterBinder {
+
+    private final LongAdder messages = new LongAdder();
+
+    private final LongAdder deliveries = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    private final LongAccumulator maxFanout = new LongAccumulator(Math::max, 0);
+
+    private final AtomicLong lastMessages = new AtomicLong();
+
+    private final AtomicLong lastDeliveries = new AtomicLong();
+
+    private final AtomicLong lastNanos = new AtomicLong();
+
+    /**
+     * 当前线程正在扇出的消息: [开始时间, 投递次数]
+     */
+    private final ThreadLocal<long[]> current = new ThreadLocal<>();
+
+    /**
+     * 记录一次扇出
+     */
+    public void record(int fanout, long elapsedNanos) {
+        messages.increment();
+        deliveries.add(fanout);
+        totalNanos.add(elapsedNanos);
+        maxNanos.accumulate(elapsedNanos);
+        maxFanout.accumulate(fanout);
+    }
+
+    public BrokerStats snapshot() {
+        long count = messages.sum();
+        long delivered = deliveries.sum();
+        long nanos = totalNanos.sum();
+        BrokerStats stats = new BrokerStats();
+        stats.setMessages(count);
+        stats.setDeliveries(delivered);
+        stats.setAvgFanout(count == 0 ? 0 : (double) delivered / count);
+        stats.setMaxFanout(maxFanout.get());
+        stats.setAvgMicros(count == 0 ? 0 : nanos / 1000.0 / count);
+        stats.setMaxMicros(maxNanos.get() / 1000.0);
+        stats.setNanosPerDelivery(delivered == 0 ? 0 : (double) nanos / delivered);
+        return stats;
+    }
+
+    /**
+     * 导出广播消息数、投递次数和扇出耗时指标
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("chat.broker.deliveries", deliveries, LongAdder::sum)
+                .description("广播消息投递到会话的次数")
+                .register(registry);
+        FunctionTimer.builder("chat.broker.fanout", this, s -> s.messages.sum(), s -> s.totalNanos.sum(),
+                        TimeUnit.NANOSECONDS)
+                .description("广播消息扇出耗时")
+                .register(registry);
+    }
+
+    /**
+     * 定期输出统计窗口内的扇出情况
+     */
+    @Scheduled(fixedDelayString = "${chat.broker.stats-interval:60000}")
+    public void report() {
+        long count = messages.sum();
+        long delivered = deliveries.sum();
+        long nanos = totalNanos.sum();
+        long windowCount = count - lastMessages.getAndSet(count);
+        long windowDelivered = delivered - lastDeliveries.getAndSet(delivered);
+        long windowNanos = nanos - lastNanos.getAndSet(nanos);
+        if (windowCount > 0) {
+            log.info("消息扇出统计: 消息 {} 条, 投递 {} 次, 平均扇出 {}, 平均耗时 {}μs, 单次投递 {}ns",
+                    windowCount, windowDelivered, String.format("%.1f", (double) windowDelivered / windowCount),
+                    String.format("%.1f", windowNanos / 1000.0 / windowCount),
+                    windowDelivered == 0 ? 0 : windowNanos / windowDelivered);
+        }
+    }
+
+    /**
+     * broker通道拦截器:进程内代理同步处理广播消息,以send前后计时
+     */
+    public ChannelInterceptor brokerInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                    current.set(new long[]{System.nanoTime(), 0});
+                }
+                return message;
+            }
+
+            @Override
+            public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+                long[] fanout = current.get();
+                if (fanout != null) {
+                    current.remove();
+                    record((int) fanout[1], System.nanoTime() - fanout[0]);
+                }
+            }
+        };
+    }
+
+    /**
+     * 客户端出站通道拦截器:统计扇出过程中投递到各会话的消息数
+     */
+    public ChannelInterceptor clientOutboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                long[] fanout = current.get();
+                if (fanout != null) {
+                    fanout[1]++;
+                }
+                return message;
+            }
+        };
+    }
+}
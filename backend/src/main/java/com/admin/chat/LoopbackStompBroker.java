@@ -0,0 +1,268 @@
+package com.admin.chat;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 回环STOMP代理
+ * 本地开发和测试集群模式用的最小STOMP代理,支持CONNECT/SUBSCRIBE/UNSUBSCRIBE/SEND/DISCONNECT,
+ * 不支持事务、ACK和持久化。同一台机器上的多个实例配置相同端口时,
+ * 第一个实例启动代理,其余实例直接连接,由此验证跨实例的消息中继。
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${chat.broker.mode:simple}' == 'relay' and ${chat.broker.relay.embedded:false}")
+public class LoopbackStompBroker {
+
+    private static final int MAX_FRAME_SIZE = 1024 * 1024;
+
+    @Autowired
+    private FanoutStats fanoutStats;
+
+    @Value("${chat.broker.relay.port:61613}")
+    private int port;
+
+    private ServerSocket serverSocket;
+
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 目的地 -> 订阅列表
+     */
+    private final Map<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    private final AtomicLong messageIds = new AtomicLong();
+
+    private final StompEncoder encoder = new StompEncoder();
+
+    @PostConstruct
+    public void start() throws IOException {
+        try {
+            serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        } catch (BindException e) {
+            log.info("回环STOMP代理端口 {} 已被占用,使用已运行的代理", port);
+            return;
+        }
+        Thread acceptor = new Thread(this::acceptLoop, "loopback-stomp-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("回环STOMP代理已启动: 127.0.0.1:{}", port);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        connections.forEach(Connection::close);
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Connection connection = new Connection(serverSocket.accept());
+                connections.add(connection);
+                Thread reader = new Thread(connection, "loopback-stomp-" + connection.socket.getPort());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("回环STOMP代理接受连接失败: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 将SEND帧转为MESSAGE帧投递给目的地的所有订阅者
+     */
+    private void publish(StompHeaderAccessor send, byte[] payload) {
+        long start = System.nanoTime();
+        List<Subscription> targets = subscriptions.getOrDefault(send.getDestination(), List.of());
+        String messageId = String.valueOf(messageIds.incrementAndGet());
+        for (Subscription target : targets) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+            accessor.setDestination(send.getDestination());
+            accessor.setSubscriptionId(target.id);
+            accessor.setMessageId(messageId);
+            if (send.getContentType() != null) {
+                accessor.setContentType(send.getContentType());
+            }
+            accessor.setContentLength(payload.length);
+            target.connection.write(accessor, payload);
+        }
+        fanoutStats.record(targets.size(), System.nanoTime() - start);
+    }
+
+    /**
+     * 单个TCP连接,读线程解析帧并处理
+     */
+    private final class Connection implements Runnable {
+
+        private final Socket socket;
+
+        private final OutputStream out;
+
+        /**
+         * 订阅ID -> 订阅
+         */
+        private final Map<String, Subscription> subscribed = new ConcurrentHashMap<>();
+
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = socket.getOutputStream();
+        }
+
+        @Override
+        public void run() {
+            StompDecoder decoder = new StompDecoder();
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            byte[] chunk = new byte[8192];
+            try (InputStream in = socket.getInputStream()) {
+                int n;
+                while ((n = in.read(chunk)) != -1) {
+                    if (buffer.remaining() < n) {
+                        if (buffer.position() + n > MAX_FRAME_SIZE) {
+                            throw new IOException("STOMP帧过大");
+                        }
+                        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + n));
+                        buffer.flip();
+                        grown.put(buffer);
+                        buffer = grown;
+                    }
+                    buffer.put(chunk, 0, n);
+                    buffer.flip();
+                    List<Message<byte[]>> frames = decoder.decode(buffer);
+                    buffer.compact();
+                    for (Message<byte[]> frame : frames) {
+                        if (!handle(frame)) {
+                            return;
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                if (!socket.isClosed()) {
+                    log.debug("回环STOMP连接异常: {}", e.getMessage());
+                }
+            } finally {
+                close();
+            }
+        }
+
+        /**
+         * 处理一帧,返回false表示关闭连接
+         */
+        private boolean handle(Message<byte[]> frame) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.wrap(frame);
+            if (accessor.getMessageType() == SimpMessageType.HEARTBEAT || accessor.getCommand() == null) {
+                return true;
+            }
+            switch (accessor.getCommand()) {
+                case CONNECT, STOMP -> {
+                    StompHeaderAccessor connected = StompHeaderAccessor.create(StompCommand.CONNECTED);
+                    connected.setVersion("1.2");
+                    connected.setHeartbeat(0, 0);
+                    write(connected, new byte[0]);
+                }
+                case SUBSCRIBE -> {
+                    Subscription subscription = new Subscription(this, accessor.getSubscriptionId(), accessor.getDestination());
+                    subscribed.put(subscription.id, subscription);
+                    subscriptions.computeIfAbsent(subscription.destination, k -> new CopyOnWriteArrayList<>()).add(subscription);
+                }
+                case UNSUBSCRIBE -> unsubscribe(subscribed.remove(accessor.getSubscriptionId()));
+                case SEND -> publish(accessor, frame.getPayload());
+                case DISCONNECT -> {
+                    receipt(accessor);
+                    return false;
+                }
+                default -> {
+                    StompHeaderAccessor error = StompHeaderAccessor.create(StompCommand.ERROR);
+                    error.setMessage("不支持的命令: " + accessor.getCommand());
+                    write(error, new byte[0]);
+                    return false;
+                }
+            }
+            receipt(accessor);
+            return true;
+        }
+
+        private void receipt(StompHeaderAccessor accessor) {
+            if (accessor.getReceipt() != null) {
+                StompHeaderAccessor receipt = StompHeaderAccessor.create(StompCommand.RECEIPT);
+                receipt.setReceiptId(accessor.getReceipt());
+                write(receipt, new byte[0]);
+            }
+        }
+
+        private void write(StompHeaderAccessor accessor, byte[] payload) {
+            byte[] bytes = encoder.encode(accessor.getMessageHeaders(), payload);
+            synchronized (out) {
+                try {
+                    out.write(bytes);
+                    out.flush();
+                } catch (IOException e) {
+                    close();
+                }
+            }
+        }
+
+        private void unsubscribe(Subscription subscription) {
+            if (subscription != null) {
+                List<Subscription> list = subscriptions.get(subscription.destination);
+                if (list != null) {
+                    list.remove(subscription);
+                }
+            }
+        }
+
+        private void close() {
+            if (connections.remove(this)) {
+                subscribed.values().forEach(this::unsubscribe);
+                subscribed.clear();
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // 连接已关闭
+                }
+            }
+        }
+    }
+
+    private static final class Subscription {
+        private final Connection connection;
+        private final String id;
+        private final String destination;
+
+        private Subscription(Connection connection, String id, String destination) {
+            this.connection = connection;
+            this.id = id;
+            this.destination = destination;
+        }
+    }
+}
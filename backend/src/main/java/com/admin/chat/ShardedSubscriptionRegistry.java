@@ -0,0 +1,187 @@
+package com.admin.chat;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.broker.AbstractSubscriptionRegistry;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.PathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 分片订阅注册表
+ * 按目的地哈希分片,每个目的地持有不可变的订阅者快照(会话ID -> 订阅ID列表),
+ * 订阅变更时在所属分片内加锁复制后替换,广播查找订阅者时无锁直接返回快照。
+ * 通配符目的地(如 /topic/*)单独保存,查找时逐个匹配。
+ */
+public class ShardedSubscriptionRegistry extends AbstractSubscriptionRegistry {
+
+    private static final MultiValueMap<String, String> EMPTY =
+            CollectionUtils.unmodifiableMultiValueMap(new LinkedMultiValueMap<>());
+
+    private final Shard[] shards;
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    /**
+     * 会话ID -> (订阅ID -> 目的地),用于取消订阅和会话断开时清理
+     */
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+
+    private final List<PatternSubscription> patterns = new CopyOnWriteArrayList<>();
+
+    public ShardedSubscriptionRegistry(int shardCount) {
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    @Override
+    protected void addSubscriptionInternal(String sessionId, String subscriptionId, String destination, Message<?> message) {
+        sessions.compute(sessionId, (k, subscriptions) -> {
+            if (subscriptions == null) {
+                subscriptions = new ConcurrentHashMap<>();
+            }
+            subscriptions.put(subscriptionId, destination);
+            return subscriptions;
+        });
+        if (pathMatcher.isPattern(destination)) {
+            patterns.add(new PatternSubscription(sessionId, subscriptionId, destination));
+        } else {
+            shardOf(destination).add(destination, sessionId, subscriptionId);
+        }
+    }
+
+    @Override
+    protected void removeSubscriptionInternal(String sessionId, String subscriptionId, Message<?> message) {
+        String[] removed = new String[1];
+        // 会话的最后一个订阅取消后移除会话条目,与添加订阅在同一个key上原子执行
+        sessions.computeIfPresent(sessionId, (k, subscriptions) -> {
+            removed[0] = subscriptions.remove(subscriptionId);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+        String destination = removed[0];
+        if (destination != null) {
+            remove(sessionId, subscriptionId, destination);
+        }
+    }
+
+    @Override
+    public void unregisterAllSubscriptions(String sessionId) {
+        Map<String, String> subscriptions = sessions.remove(sessionId);
+        if (subscriptions != null) {
+            subscriptions.forEach((subscriptionId, destination) -> remove(sessionId, subscriptionId, destination));
+        }
+    }
+
+    @Override
+    protected MultiValueMap<String, String> findSubscriptionsInternal(String destination, Message<?> message) {
+        MultiValueMap<String, String> exact = shardOf(destination).get(destination);
+        if (patterns.isEmpty()) {
+            return exact;
+        }
+        MultiValueMap<String, String> result = null;
+        for (PatternSubscription pattern : patterns) {
+            if (pathMatcher.match(pattern.destination, destination)) {
+                if (result == null) {
+                    result = copyOf(exact);
+                }
+                result.add(pattern.sessionId, pattern.subscriptionId);
+            }
+        }
+        return result == null ? exact : result;
+    }
+
+    /**
+     * 有订阅的会话数
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * 已注册的订阅总数
+     */
+    public int getSubscriptionCount() {
+        return sessions.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private void remove(String sessionId, String subscriptionId, String destination) {
+        if (pathMatcher.isPattern(destination)) {
+            patterns.removeIf(p -> p.sessionId.equals(sessionId) && p.subscriptionId.equals(subscriptionId));
+        } else {
+            shardOf(destination).remove(destination, sessionId, subscriptionId);
+        }
+    }
+
+    private Shard shardOf(String destination) {
+        return shards[Math.floorMod(destination.hashCode(), shards.length)];
+    }
+
+    /**
+     * 分片:目的地 -> 订阅者快照,写操作在分片内串行
+     */
+    private static final class Shard {
+        private final Map<String, MultiValueMap<String, String>> destinations = new ConcurrentHashMap<>();
+
+        private MultiValueMap<String, String> get(String destination) {
+            MultiValueMap<String, String> subscribers = destinations.get(destination);
+            return subscribers == null ? EMPTY : subscribers;
+        }
+
+        private synchronized void add(String destination, String sessionId, String subscriptionId) {
+            MultiValueMap<String, String> copy = copyOf(get(destination));
+            copy.add(sessionId, subscriptionId);
+            destinations.put(destination, freeze(copy));
+        }
+
+        private synchronized void remove(String destination, String sessionId, String subscriptionId) {
+            MultiValueMap<String, String> current = destinations.get(destination);
+            if (current == null) {
+                return;
+            }
+            MultiValueMap<String, String> copy = copyOf(current);
+            List<String> ids = copy.get(sessionId);
+            if (ids != null) {
+                ids.remove(subscriptionId);
+                if (ids.isEmpty()) {
+                    copy.remove(sessionId);
+                }
+            }
+            if (copy.isEmpty()) {
+                destinations.remove(destination);
+            } else {
+                destinations.put(destination, freeze(copy));
+            }
+        }
+
+        private static MultiValueMap<String, String> freeze(MultiValueMap<String, String> map) {
+            return CollectionUtils.unmodifiableMultiValueMap(map);
+        }
+    }
+
+    private static MultiValueMap<String, String> copyOf(MultiValueMap<String, String> map) {
+        MultiValueMap<String, String> copy = new LinkedMultiValueMap<>(map.size() + 1);
+        map.forEach((key, values) -> copy.put(key, new ArrayList<>(values)));
+        return copy;
+    }
+
+    private static final class PatternSubscription {
+        private final String sessionId;
+        private final String subscriptionId;
+        private final String destination;
+
+        private PatternSubscription(String sessionId, String subscriptionId, String destination) {
+            this.sessionId = sessionId;
+            this.subscriptionId = subscriptionId;
+            this.destination = destination;
+        }
+    }
+}
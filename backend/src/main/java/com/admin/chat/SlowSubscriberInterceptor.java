@@ -0,0 +1,243 @@
+package com.admin.chat;
+
+import com.admin.dto.ChannelStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 慢订阅者背压拦截器(客户端出站通道)
+ * 统计每个会话在出站线程池中排队未发送的消息数,超过上限时按策略处理:
+ * drop-丢弃新消息; coalesce-同一目的地只保留最新一条,积压消化后补发; disconnect-断开该会话。
+ * 避免少数慢客户端占满出站队列拖慢所有订阅者的广播。
+ */
+@Slf4j
+@Component
+public class SlowSubscriberInterceptor implements ExecutorChannelInterceptor, MeterBinder {
+
+    public enum Policy {
+        DROP, COALESCE, DISCONNECT
+    }
+
+    @Value("${chat.slow-subscriber.max-pending:100}")
+    private int maxPending;
+
+    @Value("${chat.slow-subscriber.policy:drop}")
+    private String policyName;
+
+    private Policy policy;
+
+    private final Map<String, SessionState> states = new ConcurrentHashMap<>();
+
+    /**
+     * 已建立的WebSocket会话,用于断开慢订阅者
+     */
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder disconnected = new LongAdder();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = trackedSessionId(message);
+        if (sessionId == null) {
+            return message;
+        }
+        SessionState state = states.computeIfAbsent(sessionId, k -> new SessionState());
+        if (state.pending.incrementAndGet() <= maxPending) {
+            return message;
+        }
+        state.pending.decrementAndGet();
+        switch (policy()) {
+            case COALESCE -> {
+                String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                state.coalesced.put(destination == null ? "" : destination, message);
+                coalesced.increment();
+                // 积压恰好在此期间清空时立即补发
+                if (state.pending.get() == 0) {
+                    flush(state, channel);
+                }
+            }
+            case DISCONNECT -> disconnect(sessionId);
+            default -> dropped.increment();
+        }
+        return null;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // 提交到线程池失败时不会再回调afterMessageHandled
+        if (ex != null) {
+            release(message, channel);
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        release(message, channel);
+    }
+
+    /**
+     * 记录会话的建立和关闭
+     */
+    public WebSocketHandlerDecoratorFactory sessionTracker() {
+        return handler -> new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), session);
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                states.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * 出站背压统计及各通道线程池的队列深度
+     */
+    public ChannelStats snapshot(ThreadPoolTaskExecutor inbound, ThreadPoolTaskExecutor outbound) {
+        ChannelStats stats = new ChannelStats();
+        stats.setInbound(ChannelStats.ExecutorStats.of(inbound));
+        stats.setOutbound(ChannelStats.ExecutorStats.of(outbound));
+        stats.setSessions(sessions.size());
+        int pending = 0;
+        int maxSessionPending = 0;
+        for (SessionState state : states.values()) {
+            int p = state.pending.get();
+            pending += p;
+            maxSessionPending = Math.max(maxSessionPending, p);
+        }
+        stats.setPendingMessages(pending);
+        stats.setMaxSessionPending(maxSessionPending);
+        stats.setPolicy(policy().name().toLowerCase());
+        stats.setDropped(dropped.sum());
+        stats.setCoalesced(coalesced.sum());
+        stats.setDisconnected(disconnected.sum());
+        return stats;
+    }
+
+    private void release(Message<?> message, MessageChannel channel) {
+        String sessionId = trackedSessionId(message);
+        if (sessionId == null) {
+            return;
+        }
+        SessionState state = states.get(sessionId);
+        if (state != null && state.pending.decrementAndGet() < maxPending && !state.coalesced.isEmpty()) {
+            flush(state, channel);
+        }
+    }
+
+    /**
+     * 补发合并后的消息,重新经过preSend计数
+     */
+    private void flush(SessionState state, MessageChannel channel) {
+        Iterator<Message<?>> it = state.coalesced.values().iterator();
+        while (it.hasNext()) {
+            Message<?> message = it.next();
+            it.remove();
+            channel.send(message);
+        }
+    }
+
+    private void disconnect(String sessionId) {
+        states.remove(sessionId);
+        WebSocketSession session = sessions.remove(sessionId);
+        if (session == null) {
+            dropped.increment();
+            return;
+        }
+        disconnected.increment();
+        log.warn("断开慢订阅者会话: {}", sessionId);
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("关闭会话失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 导出会话数、排队消息数和背压处理次数指标
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("chat.outbound.sessions", sessions, Map::size)
+                .description("已建立的WebSocket会话数")
+                .register(registry);
+        Gauge.builder("chat.outbound.pending", this, SlowSubscriberInterceptor::pendingMessages)
+                .description("出站队列中排队未发送的消息数")
+                .register(registry);
+        FunctionCounter.builder("chat.outbound.backpressure", dropped, LongAdder::sum)
+                .description("慢订阅者背压处理次数")
+                .tag("action", "drop")
+                .register(registry);
+        FunctionCounter.builder("chat.outbound.backpressure", coalesced, LongAdder::sum)
+                .tag("action", "coalesce")
+                .register(registry);
+        FunctionCounter.builder("chat.outbound.backpressure", disconnected, LongAdder::sum)
+                .tag("action", "disconnect")
+                .register(registry);
+    }
+
+    private int pendingMessages() {
+        int pending = 0;
+        for (SessionState state : states.values()) {
+            pending += state.pending.get();
+        }
+        return pending;
+    }
+
+    private Policy policy() {
+        Policy p = policy;
+        if (p == null) {
+            p = Policy.valueOf(policyName.toUpperCase());
+            policy = p;
+        }
+        return p;
+    }
+
+    /**
+     * 只对发往具体会话的广播消息计数
+     */
+    private static String trackedSessionId(Message<?> message) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return null;
+        }
+        return SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    }
+
+    private static final class SessionState {
+        private final AtomicInteger pending = new AtomicInteger();
+        private final Map<String, Message<?>> coalesced = new ConcurrentHashMap<>();
+    }
+}
@@ -2,6 +2,7 @@ package com.admin.common.exception;
 
 import com.admin.common.enums.ErrorCode;
 import com.admin.dto.ApiResponse;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -24,8 +25,16 @@ public class GlobalExceptionHandler {
         return ApiResponse.error(ErrorCode.PARAM_ERROR.getCode(), message);
     }
 
+    /**
+     * 响应已提交(流式输出中途失败)时无法再写入错误响应,重新抛出由容器中断连接,
+     * 避免客户端把截断的内容当作成功响应
+     */
     @ExceptionHandler(Exception.class)
-    public ApiResponse<Void> handleException(Exception e) {
+    public ApiResponse<Void> handleException(Exception e, HttpServletResponse response) throws Exception {
+        if (response.isCommitted()) {
+            log.error("响应已提交,中断连接: ", e);
+            throw e;
+        }
         log.error("Exception: ", e);
         return ApiResponse.error(ErrorCode.SYSTEM_ERROR.getCode(), ErrorCode.SYSTEM_ERROR.getMessage());
     }
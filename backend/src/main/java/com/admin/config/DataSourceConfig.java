@@ -0,0 +1,145 @@
+package com.admin.config;
+
+import com.admin.datasource.ConnectionLimitingDataSource;
+import com.admin.datasource.ConnectionProfiler;
+import com.admin.datasource.PoolProperties;
+import com.admin.datasource.ProfilingDataSource;
+import com.admin.datasource.ReadWriteRoutingDataSource;
+import com.admin.datasource.ReplicaMonitor;
+import com.admin.datasource.ReplicaProperties;
+import com.admin.datasource.ReplicaReadAdvisor;
+import com.admin.datasource.WriteTrackingInterceptor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * 数据源配置
+ * 连接地址和账号取 spring.datasource,连接池参数统一取 datasource.pool,各环境在自己的配置文件中覆盖。
+ * 由内到外依次为: HikariCP连接池 -> 并发限制(可选) -> 读写分离(可选,副本配置在 datasource.replica) -> 连接使用分析(可选)
+ */
+@Slf4j
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${datasource.limiter.enabled:${spring.threads.virtual.enabled:false}}")
+    private boolean limiterEnabled;
+
+    @Value("${datasource.limiter.permits:0}")
+    private int permits;
+
+    @Value("${datasource.limiter.acquire-timeout:0}")
+    private long acquireTimeout;
+
+    /**
+     * 连接池配置
+     */
+    @Bean
+    @ConfigurationProperties("datasource.pool")
+    public PoolProperties poolProperties() {
+        return new PoolProperties();
+    }
+
+    /**
+     * 只读副本配置
+     */
+    @Bean
+    @ConfigurationProperties("datasource.replica")
+    public ReplicaProperties replicaProperties() {
+        return new ReplicaProperties();
+    }
+
+    /**
+     * 数据源
+     */
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, PoolProperties pool, ReplicaProperties replicaProperties,
+                                 ConnectionProfiler profiler, ReplicaMonitor replicaMonitor,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${datasource.profiler.enabled:true}") boolean profilerEnabled) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.applyTo(primary);
+        log.info("数据库连接池: {} 最大连接数 {} 最小空闲 {} 获取超时 {}ms", primary.getPoolName(),
+                primary.getMaximumPoolSize(), primary.getMinimumIdle(), primary.getConnectionTimeout());
+
+        DataSource dataSource = limit(primary);
+        if (replicaProperties.isEnabled()) {
+            HikariDataSource replica = createReplica(properties, replicaProperties);
+            // 副本连接池不是容器中的Bean,自动配置不会为它注册指标
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            log.info("读写分离已启用: 副本 {} 连接池 {} 最大连接数 {} 最大复制延迟 {}s", replica.getJdbcUrl(),
+                    replica.getPoolName(), replica.getMaximumPoolSize(), replicaProperties.getMaxLagSeconds());
+            DataSource limitedReplica = limit(replica);
+            replicaMonitor.watch(limitedReplica, replicaProperties);
+            dataSource = new ReadWriteRoutingDataSource(dataSource, limitedReplica, replicaMonitor);
+        }
+        if (profilerEnabled) {
+            dataSource = new ProfilingDataSource(dataSource, profiler);
+        }
+        return dataSource;
+    }
+
+    /**
+     * 只读方法路由切面
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+    public static ReplicaReadAdvisor replicaReadAdvisor() {
+        return new ReplicaReadAdvisor();
+    }
+
+    /**
+     * 记录请求内的写操作,实现读己之写
+     */
+    @Bean
+    @ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+    public WriteTrackingInterceptor writeTrackingInterceptor() {
+        return new WriteTrackingInterceptor();
+    }
+
+    /**
+     * 副本连接池: 地址和账号取 datasource.replica,未配置的账号沿用主库;连接设为只读,误写会直接报错
+     */
+    private static HikariDataSource createReplica(DataSourceProperties primary, ReplicaProperties properties) {
+        if (!StringUtils.hasText(properties.getUrl())) {
+            throw new IllegalStateException("已开启读写分离,但未配置 datasource.replica.url");
+        }
+        HikariDataSource replica = new HikariDataSource();
+        replica.setJdbcUrl(properties.getUrl());
+        replica.setUsername(properties.getUsername() != null ? properties.getUsername() : primary.determineUsername());
+        replica.setPassword(properties.getPassword() != null ? properties.getPassword() : primary.determinePassword());
+        if (StringUtils.hasText(properties.getDriverClassName())) {
+            replica.setDriverClassName(properties.getDriverClassName());
+        }
+        properties.getPool().applyTo(replica);
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    /**
+     * 用信号量限制并发连接数,默认在开启虚拟线程时启用,许可数与连接池大小一致
+     */
+    private DataSource limit(HikariDataSource pool) {
+        if (!limiterEnabled) {
+            return pool;
+        }
+        int limit = permits > 0 ? permits : pool.getMaximumPoolSize();
+        long timeout = acquireTimeout > 0 ? acquireTimeout : pool.getConnectionTimeout();
+        log.info("数据源并发限制已启用: {} {} 个许可, 等待超时 {}ms", pool.getPoolName(), limit, timeout);
+        return new ConnectionLimitingDataSource(pool, limit, timeout);
+    }
+}
@@ -2,6 +2,8 @@ package com.admin.config;
 
 import com.admin.interceptor.JwtAuthInterceptor;
 import com.admin.interceptor.PermissionInterceptor;
+import com.admin.metrics.TimedHandlerInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -20,6 +22,9 @@ public class WebConfig implements WebMvcConfigurer {
     @Autowired
     private PermissionInterceptor permissionInterceptor;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -32,13 +37,13 @@ public class WebConfig implements WebMvcConfigurer {
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        // 注册JWT认证拦截器
-        registry.addInterceptor(jwtAuthInterceptor)
+        // 注册JWT认证拦截器(记录认证耗时)
+        registry.addInterceptor(new TimedHandlerInterceptor("jwt", jwtAuthInterceptor, meterRegistry))
                 .addPathPatterns("/api/**")
                 .excludePathPatterns("/api/auth/login", "/api/auth/logout", "/api/excel/export"); // 排除不需要认证的接口
 
-        // 注册权限校验拦截器
-        registry.addInterceptor(permissionInterceptor)
+        // 注册权限校验拦截器(记录权限判断耗时)
+        registry.addInterceptor(new TimedHandlerInterceptor("permission", permissionInterceptor, meterRegistry))
                 .addPathPatterns("/api/**")
                 .excludePathPatterns("/api/auth/**");
     }
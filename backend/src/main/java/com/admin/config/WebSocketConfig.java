@@ -1,16 +1,86 @@
 package com.admin.config;
 
+import com.admin.chat.FanoutStats;
+import com.admin.chat.ShardedSubscriptionRegistry;
+import com.admin.chat.SlowSubscriberInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.*;
 
 /**
  * WebSocket配置类
+ * 消息代理模式(chat.broker.mode):
+ * simple-Spring内置简单代理; sharded-进程内分片订阅注册表; relay-中继到外部STOMP代理,支持多实例部署
  */
+@Slf4j
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
-    
+
+    @Autowired
+    private FanoutStats fanoutStats;
+
+    @Autowired
+    private SlowSubscriberInterceptor slowSubscriberInterceptor;
+
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${chat.broker.relay.host:127.0.0.1}")
+    private String relayHost;
+
+    @Value("${chat.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${chat.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${chat.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${chat.channel.inbound.core-size:8}")
+    private int inboundCoreSize;
+
+    @Value("${chat.channel.inbound.max-size:32}")
+    private int inboundMaxSize;
+
+    @Value("${chat.channel.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${chat.channel.outbound.core-size:16}")
+    private int outboundCoreSize;
+
+    @Value("${chat.channel.outbound.max-size:64}")
+    private int outboundMaxSize;
+
+    @Value("${chat.channel.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${chat.channel.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${chat.transport.send-time-limit:10000}")
+    private int sendTimeLimit;
+
+    @Value("${chat.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${chat.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${chat.transport.time-to-first-message:60000}")
+    private int timeToFirstMessage;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // 注册WebSocket端点
@@ -18,11 +88,87 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
-    
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         // 配置消息代理
-        registry.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equals(brokerMode)) {
+            registry.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+        } else {
+            registry.enableSimpleBroker("/topic", "/queue");
+            // 进程内代理同步扇出,在broker通道上统计扇出耗时
+            registry.configureBrokerChannel().interceptors(fanoutStats.brokerInterceptor());
+        }
         registry.setApplicationDestinationPrefixes("/app");
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor(
+                inboundCoreSize, inboundMaxSize, inboundQueueCapacity, "clientInboundChannel-"));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor(
+                outboundCoreSize, outboundMaxSize, outboundQueueCapacity, "clientOutboundChannel-"));
+        // 背压拦截器在前,被丢弃的消息不计入扇出
+        registration.interceptors(slowSubscriberInterceptor);
+        if (!"relay".equals(brokerMode)) {
+            registration.interceptors(fanoutStats.clientOutboundInterceptor());
+        }
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // 单个会话的发送超时和发送缓冲上限,超出后服务端关闭该会话
+        registration.setSendTimeLimit(sendTimeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .setTimeToFirstMessage(timeToFirstMessage)
+                .addDecoratorFactory(slowSubscriberInterceptor.sessionTracker());
+    }
+
+    /**
+     * 通道线程池,可选使用虚拟线程(需Java 21+)
+     */
+    private ThreadPoolTaskExecutor channelExecutor(int coreSize, int maxSize, int queueCapacity, String threadNamePrefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        if (virtualThreads) {
+            if (Runtime.version().feature() >= 21) {
+                executor.setThreadFactory(new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory());
+            } else {
+                log.warn("当前JDK {} 不支持虚拟线程,{} 使用平台线程", Runtime.version().feature(), threadNamePrefix);
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 分片模式下替换简单代理的订阅注册表
+     */
+    @Bean
+    @ConditionalOnProperty(name = "chat.broker.mode", havingValue = "sharded")
+    public static BeanPostProcessor shardedSubscriptionRegistryPostProcessor(
+            @Value("${chat.broker.shards:16}") int shards) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof SimpleBrokerMessageHandler handler) {
+                    handler.setSubscriptionRegistry(new ShardedSubscriptionRegistry(shards));
+                }
+                return bean;
+            }
+        };
+    }
 }
@@ -2,16 +2,21 @@ package com.admin.controller;
 
 import com.admin.annotation.RequiresPermission;
 import com.admin.dto.ApiResponse;
+import com.admin.dto.ArticleSearchResult;
+import com.admin.dto.CursorPage;
 import com.admin.entity.Article;
 import com.admin.service.ArticleService;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.nio.charset.StandardCharsets;
 
 /**
  * 文章控制器
@@ -29,19 +34,47 @@ public class ArticleController {
      */
     @RequiresPermission("article:list")
     @GetMapping
-    @Operation(summary = "获取文章列表", description = "分页查询文章列表，page<=0时返回所有")
-    public ApiResponse<List<Article>> getArticles(
+    @Operation(summary = "获取文章列表", description = "分页查询文章列表，page<=0时流式返回所有(响应格式与分页时相同)")
+    public Object getArticles(
             @Parameter(description = "页码，<=0时不分页") @RequestParam(defaultValue = "1") int page,
-            @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") int size,
+            HttpServletResponse response) {
         if (page <= 0) {
-            // 不分页，查询所有
-            List<Article> articles = articleService.getAllArticles();
-            return ApiResponse.success(articles);
+            // 不分页，边读边写，不在内存中组装完整列表；输出中途失败时中断连接，客户端不会收到完整的成功响应
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            return (StreamingResponseBody) articleService::writeAllArticles;
         }
         Page<Article> articlePage = articleService.getArticlePage(page, size);
         return ApiResponse.success(articlePage.getRecords());
     }
 
+    /**
+     * 游标分页查询文章列表
+     */
+    @RequiresPermission("article:list")
+    @GetMapping("/cursor")
+    @Operation(summary = "游标分页获取文章列表", description = "按创建时间倒序,传入上一页返回的nextCursor获取下一页,翻页深度不影响查询耗时")
+    public ApiResponse<CursorPage<Article>> getArticlesByCursor(
+            @Parameter(description = "上一页返回的游标,为空时查询第一页") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "是否返回总数(缓存值)") @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ApiResponse.success(articleService.getArticleCursorPage(cursor, size, withTotal));
+    }
+
+    /**
+     * 全文检索文章
+     */
+    @RequiresPermission("article:list")
+    @GetMapping("/search")
+    @Operation(summary = "全文检索文章", description = "检索标题和内容,支持中文,结果按相关度排序")
+    public ApiResponse<ArticleSearchResult> searchArticles(
+            @Parameter(description = "检索关键词") @RequestParam String q,
+            @Parameter(description = "页码") @RequestParam(defaultValue = "1") int page,
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") int size) {
+        return ApiResponse.success(articleService.searchArticles(q, page, size));
+    }
+
     /**
      * 根据ID查询文章
      */
@@ -1,15 +1,31 @@
 package com.admin.controller;
 
+import com.admin.annotation.RequiresPermission;
+import com.admin.chat.ChatMessageWriter;
+import com.admin.chat.FanoutStats;
+import com.admin.chat.ShardedSubscriptionRegistry;
+import com.admin.chat.SlowSubscriberInterceptor;
+import com.admin.dto.ApiResponse;
+import com.admin.dto.BrokerStats;
+import com.admin.dto.ChannelStats;
+import com.admin.dto.ChatHistoryPage;
 import com.admin.entity.ChatMessage;
-import com.admin.mapper.ChatMessageMapper;
+import com.admin.service.ChatService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import java.time.LocalDateTime;
@@ -27,7 +43,30 @@ public class ChatController {
     private SimpMessagingTemplate messagingTemplate;
 
     @Autowired
-    private ChatMessageMapper chatMessageMapper;
+    private ChatMessageWriter chatMessageWriter;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private FanoutStats fanoutStats;
+
+    @Autowired(required = false)
+    private SimpleBrokerMessageHandler simpleBrokerMessageHandler;
+
+    @Autowired
+    private SlowSubscriberInterceptor slowSubscriberInterceptor;
+
+    @Autowired
+    @Qualifier("clientInboundChannelExecutor")
+    private ThreadPoolTaskExecutor clientInboundChannelExecutor;
+
+    @Autowired
+    @Qualifier("clientOutboundChannelExecutor")
+    private ThreadPoolTaskExecutor clientOutboundChannelExecutor;
+
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
 
     /**
      * 接收并广播聊天消息
@@ -36,16 +75,12 @@ public class ChatController {
     @SendTo("/topic/messages")
     @Operation(summary = "发送聊天消息", description = "通过WebSocket发送并广播聊天消息")
     public Map<String, Object> sendMessage(Map<String, Object> message) {
-        // 保存消息到数据库（可选）
-        try {
-            ChatMessage chatMessage = new ChatMessage();
-            chatMessage.setSenderId(1L); // 简化处理，实际应从token获取
-            chatMessage.setMessage(message.get("text").toString());
-            chatMessage.setSendTime(LocalDateTime.now());
-            chatMessageMapper.insert(chatMessage);
-        } catch (Exception e) {
-            System.out.println("保存消息失败：" + e.getMessage());
-        }
+        // 保存消息到数据库（异步批量写入，不阻塞广播）
+        ChatMessage chatMessage = new ChatMessage();
+        chatMessage.setSenderId(1L); // 简化处理，实际应从token获取
+        chatMessage.setMessage(String.valueOf(message.get("text")));
+        chatMessage.setSendTime(LocalDateTime.now().withNano(0)); // 与数据库datetime精度一致,保证分页游标可比较
+        chatMessageWriter.submit(chatMessage);
 
         // 返回消息给所有订阅者
         Map<String, Object> response = new HashMap<>();
@@ -58,6 +93,49 @@ public class ChatController {
         return response;
     }
 
+    /**
+     * 查询聊天历史消息
+     */
+    @GetMapping("/api/chat/history")
+    @ResponseBody
+    @RequiresPermission("article:chat")
+    @Operation(summary = "聊天历史", description = "按(发送时间, 消息ID)游标向前分页查询公共聊天室历史消息,不传游标返回最新一页")
+    public ApiResponse<ChatHistoryPage> getHistory(
+            @Parameter(description = "游标:发送时间,返回早于该时间的消息")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTime,
+            @Parameter(description = "游标:消息ID") @RequestParam(required = false) Long beforeId,
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "30") int size) {
+        return ApiResponse.success(chatService.getHistory(beforeTime, beforeId, size));
+    }
+
+    /**
+     * 消息代理扇出统计
+     */
+    @GetMapping("/api/chat/broker/stats")
+    @ResponseBody
+    @RequiresPermission("monitor:view")
+    @Operation(summary = "代理扇出统计", description = "查询广播消息的扇出次数和耗时")
+    public ApiResponse<BrokerStats> getBrokerStats() {
+        BrokerStats stats = fanoutStats.snapshot();
+        stats.setMode(brokerMode);
+        if (simpleBrokerMessageHandler != null
+                && simpleBrokerMessageHandler.getSubscriptionRegistry() instanceof ShardedSubscriptionRegistry sharded) {
+            stats.setSubscriptions(sharded.getSubscriptionCount());
+        }
+        return ApiResponse.success(stats);
+    }
+
+    /**
+     * WebSocket通道统计
+     */
+    @GetMapping("/api/chat/channels/stats")
+    @ResponseBody
+    @RequiresPermission("monitor:view")
+    @Operation(summary = "通道统计", description = "查询入站/出站通道线程池队列深度和慢订阅者处理情况")
+    public ApiResponse<ChannelStats> getChannelStats() {
+        return ApiResponse.success(slowSubscriberInterceptor.snapshot(clientInboundChannelExecutor, clientOutboundChannelExecutor));
+    }
+
     /**
      * 测试WebSocket连接
      */
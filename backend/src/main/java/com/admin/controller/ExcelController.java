@@ -1,11 +1,17 @@
 package com.admin.controller;
 
+import com.admin.annotation.RequiresPermission;
 import com.admin.dto.ApiResponse;
+import com.admin.dto.ImportJobStatus;
+import com.admin.excel.RowBatchConsumer;
+import com.admin.service.ExcelExportService;
+import com.admin.service.ExcelImportService;
+import com.admin.service.ImportJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -19,11 +25,21 @@ import java.util.Map;
 /**
  * Excel控制器
  */
+@Slf4j
 @RestController
 @RequestMapping("/api/excel")
 @Tag(name = "Excel导入导出", description = "Excel文件的导入导出接口")
 public class ExcelController {
 
+    @Autowired
+    private ExcelExportService excelExportService;
+
+    @Autowired
+    private ExcelImportService excelImportService;
+
+    @Autowired
+    private ImportJobService importJobService;
+
     /**
      * 导入Excel文件
      */
@@ -32,34 +48,21 @@ public class ExcelController {
     public ApiResponse<Map<String, Object>> importExcel(
             @Parameter(description = "Excel文件") @RequestParam("file") MultipartFile file) {
         try {
-            Workbook workbook = WorkbookFactory.create(file.getInputStream());
-            Sheet sheet = workbook.getSheetAt(0);
-
             List<String> headers = new ArrayList<>();
-            List<List<Object>> data = new ArrayList<>();
+            List<List<String>> data = new ArrayList<>();
 
-            // 读取表头
-            Row headerRow = sheet.getRow(0);
-            if (headerRow != null) {
-                for (Cell cell : headerRow) {
-                    headers.add(getCellValue(cell));
-                }
-            }
-
-            // 读取数据行
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row != null) {
-                    List<Object> rowData = new ArrayList<>();
-                    for (int j = 0; j < headers.size(); j++) {
-                        Cell cell = row.getCell(j);
-                        rowData.add(cell != null ? getCellValue(cell) : "");
-                    }
-                    data.add(rowData);
+            // 流式解析,第一行为表头
+            excelImportService.read(file, new RowBatchConsumer() {
+                @Override
+                public void onHeader(List<String> headerRow) {
+                    headers.addAll(headerRow);
                 }
-            }
 
-            workbook.close();
+                @Override
+                public void accept(List<List<String>> rows) {
+                    data.addAll(rows);
+                }
+            });
 
             Map<String, Object> result = new HashMap<>();
             result.put("headers", headers);
@@ -72,6 +75,53 @@ public class ExcelController {
         }
     }
 
+    /**
+     * 异步导入Excel文件
+     */
+    @PostMapping("/import/async")
+    @Operation(summary = "异步导入Excel", description = "上传后立即返回任务ID,进度通过WebSocket推送到 /topic/jobs/{id}")
+    public ApiResponse<ImportJobStatus> importExcelAsync(
+            @Parameter(description = "Excel文件") @RequestParam("file") MultipartFile file,
+            @RequestAttribute(value = "userId", required = false) Long userId) throws IOException {
+        return ApiResponse.success(importJobService.submit(file, userId));
+    }
+
+    /**
+     * 查询导入任务状态
+     */
+    @GetMapping("/import/jobs/{id}")
+    @Operation(summary = "查询导入任务", description = "查询导入任务的状态和进度")
+    public ApiResponse<ImportJobStatus> getImportJob(
+            @Parameter(description = "任务ID") @PathVariable String id,
+            @RequestAttribute(value = "userId", required = false) Long userId) {
+        return ApiResponse.success(importJobService.getStatus(id, userId));
+    }
+
+    /**
+     * 分页查询导入结果
+     */
+    @GetMapping("/import/jobs/{id}/rows")
+    @Operation(summary = "查询导入结果", description = "分页查询导入任务已解析的数据行")
+    public ApiResponse<List<List<String>>> getImportRows(
+            @Parameter(description = "任务ID") @PathVariable String id,
+            @Parameter(description = "页码") @RequestParam(defaultValue = "1") int page,
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "100") int size,
+            @RequestAttribute(value = "userId", required = false) Long userId) throws IOException {
+        return ApiResponse.success(importJobService.getRows(id, userId, page, size));
+    }
+
+    /**
+     * 取消导入任务
+     */
+    @DeleteMapping("/import/jobs/{id}")
+    @Operation(summary = "取消导入任务", description = "取消排队中或正在执行的导入任务")
+    public ApiResponse<Void> cancelImportJob(
+            @Parameter(description = "任务ID") @PathVariable String id,
+            @RequestAttribute(value = "userId", required = false) Long userId) {
+        importJobService.cancel(id, userId);
+        return ApiResponse.success();
+    }
+
     /**
      * 导出Excel文件
      */
@@ -82,58 +132,40 @@ public class ExcelController {
             List<String> headers = (List<String>) requestData.get("headers");
             List<List<Object>> data = (List<List<Object>>) requestData.get("data");
 
-            Workbook workbook = new XSSFWorkbook();
-            Sheet sheet = workbook.createSheet("导出数据");
-
-            // 创建表头
-            Row headerRow = sheet.createRow(0);
-            for (int i = 0; i < headers.size(); i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers.get(i));
-            }
-
-            // 创建数据行
-            for (int i = 0; i < data.size(); i++) {
-                Row row = sheet.createRow(i + 1);
-                List<Object> rowData = data.get(i);
-                for (int j = 0; j < rowData.size(); j++) {
-                    Cell cell = row.createCell(j);
-                    cell.setCellValue(String.valueOf(rowData.get(j)));
-                }
-            }
-
-            // 设置响应头
-            response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-            response.setHeader("Content-Disposition", "attachment; filename=export.xlsx");
-
-            workbook.write(response.getOutputStream());
-            workbook.close();
+            setExcelHeaders(response, "export.xlsx");
+            excelExportService.export(headers, data, response.getOutputStream());
         } catch (IOException e) {
-            e.printStackTrace();
+            log.warn("导出Excel失败: {}", e.getMessage());
         }
     }
 
     /**
-     * 获取单元格值
+     * 流式导出用户列表
      */
-    private String getCellValue(Cell cell) {
-        if (cell == null)
-            return "";
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                }
-                return String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return "";
-        }
+    @RequiresPermission("user:list")
+    @GetMapping("/users/export")
+    @Operation(summary = "导出用户列表", description = "从数据库流式导出全部用户,内存占用与行数无关")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        setExcelHeaders(response, "users.xlsx");
+        excelExportService.exportUsers(response.getOutputStream());
+    }
+
+    /**
+     * 流式导出文章列表
+     */
+    @RequiresPermission("article:list")
+    @GetMapping("/articles/export")
+    @Operation(summary = "导出文章列表", description = "从数据库流式导出全部文章,内存占用与行数无关")
+    public void exportArticles(HttpServletResponse response) throws IOException {
+        setExcelHeaders(response, "articles.xlsx");
+        excelExportService.exportArticles(response.getOutputStream());
+    }
+
+    /**
+     * 设置Excel下载响应头;响应在第一次写出内容时提交,写出前失败仍可返回错误状态码
+     */
+    private void setExcelHeaders(HttpServletResponse response, String fileName) {
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader("Content-Disposition", "attachment; filename=" + fileName);
     }
 }
@@ -0,0 +1,83 @@
+package com.admin.controller;
+
+import com.admin.dto.ApiResponse;
+import com.admin.dto.CursorPage;
+import com.admin.entity.FileRecord;
+import com.admin.service.FileService;
+import com.admin.upload.FileSender;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.ZoneId;
+
+/**
+ * 文件控制器
+ */
+@RestController
+@RequestMapping("/api/files")
+@Tag(name = "文件管理", description = "已上传文件的查询、下载和删除接口")
+public class FileController {
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FileSender fileSender;
+
+    /**
+     * 查询当前用户的文件
+     */
+    @GetMapping
+    @Operation(summary = "获取文件列表", description = "游标分页查询当前用户上传的文件,按上传时间倒序")
+    public ApiResponse<CursorPage<FileRecord>> listFiles(
+            @Parameter(description = "上一页返回的游标,为空时查询第一页") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "20") Integer size,
+            @RequestAttribute(value = "userId", required = false) Long userId) {
+        return ApiResponse.success(fileService.listFiles(userId, cursor, size));
+    }
+
+    /**
+     * 根据ID获取文件信息
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "获取文件信息", description = "根据文件ID获取文件名、大小和SHA-256")
+    public ApiResponse<FileRecord> getFile(
+            @Parameter(description = "文件ID") @PathVariable Long id,
+            @RequestAttribute(value = "userId", required = false) Long userId) {
+        return ApiResponse.success(fileService.getFile(id, userId));
+    }
+
+    /**
+     * 下载文件
+     */
+    @GetMapping("/{id}/content")
+    @Operation(summary = "下载文件", description = "支持Range/If-Range断点续传、多区间请求以及ETag条件请求,ETag为内容SHA-256")
+    public void download(
+            @Parameter(description = "文件ID") @PathVariable Long id,
+            @RequestAttribute(value = "userId", required = false) Long userId,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        FileRecord record = fileService.getFile(id, userId);
+        long lastModified = record.getCreateTime() == null ? -1
+                : record.getCreateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        fileSender.send(request, response, fileService.getContentPath(record), record.getFileSize(),
+                record.getSha256(), lastModified, record.getFileName());
+    }
+
+    /**
+     * 删除文件
+     */
+    @DeleteMapping("/{id}")
+    @Operation(summary = "删除文件", description = "删除文件记录,内容不再被任何文件引用时一并删除")
+    public ApiResponse<Void> deleteFile(
+            @Parameter(description = "文件ID") @PathVariable Long id,
+            @RequestAttribute(value = "userId", required = false) Long userId) {
+        fileService.deleteFile(id, userId);
+        return ApiResponse.success();
+    }
+}
@@ -0,0 +1,74 @@
+package com.admin.controller;
+
+import com.admin.annotation.RequiresPermission;
+import com.admin.datasource.ConnectionProfiler;
+import com.admin.dto.ApiResponse;
+import com.admin.dto.PoolStats;
+import com.admin.dto.SqlStats;
+import com.admin.mybatis.SlowSqlInterceptor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 系统监控控制器
+ */
+@RestController
+@RequestMapping("/api/monitor")
+@Tag(name = "系统监控", description = "SQL耗时、数据库连接使用等运行统计接口")
+public class MonitorController {
+
+    @Autowired
+    private SlowSqlInterceptor slowSqlInterceptor;
+
+    @Autowired
+    private ConnectionProfiler connectionProfiler;
+
+    /**
+     * SQL耗时统计
+     */
+    @RequiresPermission("monitor:view")
+    @GetMapping("/sql")
+    @Operation(summary = "SQL耗时统计", description = "按Mapper方法统计执行次数、慢SQL次数和耗时分位数,按累计耗时降序")
+    public ApiResponse<List<SqlStats>> getSqlStats(
+            @Parameter(description = "返回条数，<=0时返回全部") @RequestParam(defaultValue = "50") int limit) {
+        return ApiResponse.success(slowSqlInterceptor.snapshot(limit));
+    }
+
+    /**
+     * 清空SQL耗时统计
+     */
+    @RequiresPermission("monitor:view")
+    @DeleteMapping("/sql")
+    @Operation(summary = "清空SQL耗时统计", description = "重新开始统计各语句的执行耗时")
+    public ApiResponse<Void> resetSqlStats() {
+        slowSqlInterceptor.reset();
+        return ApiResponse.success();
+    }
+
+    /**
+     * 数据库连接使用统计
+     */
+    @RequiresPermission("monitor:view")
+    @GetMapping("/pool")
+    @Operation(summary = "数据库连接使用统计", description = "获取连接的等待分布、按调用方法统计的连接占用时长,以及最近捕获的长时间占用连接及其调用栈")
+    public ApiResponse<PoolStats> getPoolStats(
+            @Parameter(description = "返回的调用方法条数，<=0时返回全部") @RequestParam(defaultValue = "50") int limit) {
+        return ApiResponse.success(connectionProfiler.snapshot(limit));
+    }
+
+    /**
+     * 清空数据库连接使用统计
+     */
+    @RequiresPermission("monitor:view")
+    @DeleteMapping("/pool")
+    @Operation(summary = "清空数据库连接使用统计", description = "重新开始统计连接等待和占用时长")
+    public ApiResponse<Void> resetPoolStats() {
+        connectionProfiler.reset();
+        return ApiResponse.success();
+    }
+}
@@ -2,6 +2,7 @@ package com.admin.controller;
 
 import com.admin.annotation.RequiresPermission;
 import com.admin.dto.ApiResponse;
+import com.admin.dto.CursorPage;
 import com.admin.entity.Role;
 import com.admin.service.RoleService;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -37,6 +38,20 @@ public class RoleController {
         return ApiResponse.success(roleService.getRoleList(page, size, keyword));
     }
 
+    /**
+     * 游标分页获取角色列表
+     */
+    @RequiresPermission("role:list")
+    @GetMapping("/cursor")
+    @Operation(summary = "游标分页获取角色列表", description = "按创建时间正序,传入上一页返回的nextCursor获取下一页,不执行COUNT(*)")
+    public ApiResponse<CursorPage<Role>> getByCursor(
+            @Parameter(description = "上一页返回的游标,为空时查询第一页") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") Integer size,
+            @Parameter(description = "搜索关键字") @RequestParam(required = false) String keyword,
+            @Parameter(description = "是否返回总数(缓存值)") @RequestParam(defaultValue = "false") Boolean withTotal) {
+        return ApiResponse.success(roleService.getRoleCursorPage(cursor, size, keyword, withTotal));
+    }
+
     /**
      * 根据ID获取角色
      */
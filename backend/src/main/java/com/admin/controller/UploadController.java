@@ -0,0 +1,84 @@
+package com.admin.controller;
+
+import com.admin.dto.ApiResponse;
+import com.admin.dto.UploadInitRequest;
+import com.admin.dto.UploadStatus;
+import com.admin.service.UploadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * 分片上传控制器
+ */
+@RestController
+@RequestMapping("/api/uploads")
+@Tag(name = "分片上传", description = "大文件分片、断点续传上传接口")
+public class UploadController {
+
+    @Autowired
+    private UploadService uploadService;
+
+    /**
+     * 上传握手
+     */
+    @PostMapping
+    @Operation(summary = "上传握手", description = "创建上传会话;携带相同fileKey再次握手时返回原会话和缺失的分片,用于断点续传")
+    public ApiResponse<UploadStatus> init(@RequestBody UploadInitRequest request,
+                                          @RequestAttribute(value = "userId", required = false) Long userId) throws IOException {
+        return ApiResponse.success(uploadService.init(request, userId));
+    }
+
+    /**
+     * 查询上传进度
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "查询上传进度", description = "返回已上传的分片数和缺失的分片序号")
+    public ApiResponse<UploadStatus> getStatus(
+            @Parameter(description = "上传会话ID") @PathVariable String id,
+            @RequestAttribute(value = "userId", required = false) Long userId) {
+        return ApiResponse.success(uploadService.getStatus(id, userId));
+    }
+
+    /**
+     * 上传分片
+     */
+    @PutMapping("/{id}/chunks/{index}")
+    @Operation(summary = "上传分片", description = "请求体为分片的原始字节(application/octet-stream),同一文件的不同分片可并发上传")
+    public ApiResponse<UploadStatus> uploadChunk(
+            @Parameter(description = "上传会话ID") @PathVariable String id,
+            @Parameter(description = "分片序号,从0开始") @PathVariable int index,
+            @RequestAttribute(value = "userId", required = false) Long userId,
+            HttpServletRequest request) throws IOException {
+        return ApiResponse.success(uploadService.writeChunk(id, index, request.getInputStream(),
+                request.getContentLengthLong(), userId));
+    }
+
+    /**
+     * 完成上传
+     */
+    @PostMapping("/{id}/complete")
+    @Operation(summary = "完成上传", description = "所有分片到齐后合并为完整文件")
+    public ApiResponse<UploadStatus> complete(
+            @Parameter(description = "上传会话ID") @PathVariable String id,
+            @RequestAttribute(value = "userId", required = false) Long userId) throws IOException {
+        return ApiResponse.success(uploadService.complete(id, userId));
+    }
+
+    /**
+     * 取消上传
+     */
+    @DeleteMapping("/{id}")
+    @Operation(summary = "取消上传", description = "取消未完成的上传并删除已上传的分片")
+    public ApiResponse<Void> cancel(
+            @Parameter(description = "上传会话ID") @PathVariable String id,
+            @RequestAttribute(value = "userId", required = false) Long userId) {
+        uploadService.cancel(id, userId);
+        return ApiResponse.success();
+    }
+}
@@ -2,6 +2,7 @@ package com.admin.controller;
 
 import com.admin.annotation.RequiresPermission;
 import com.admin.dto.ApiResponse;
+import com.admin.dto.CursorPage;
 import com.admin.entity.User;
 import com.admin.service.UserService;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -35,6 +36,20 @@ public class UserController {
         return ApiResponse.success(userService.getUserList(page, size, keyword));
     }
 
+    /**
+     * 游标分页获取用户列表
+     */
+    @RequiresPermission("user:list")
+    @GetMapping("/cursor")
+    @Operation(summary = "游标分页获取用户列表", description = "按创建时间正序,传入上一页返回的nextCursor获取下一页,不执行COUNT(*)")
+    public ApiResponse<CursorPage<User>> getByCursor(
+            @Parameter(description = "上一页返回的游标,为空时查询第一页") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") Integer size,
+            @Parameter(description = "搜索关键字") @RequestParam(required = false) String keyword,
+            @Parameter(description = "是否返回总数(缓存值)") @RequestParam(defaultValue = "false") Boolean withTotal) {
+        return ApiResponse.success(userService.getUserCursorPage(cursor, size, keyword, withTotal));
+    }
+
     /**
      * 根据ID获取用户
      */
@@ -0,0 +1,96 @@
+package com.admin.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限制并发连接数的数据源
+ * 获取连接前先取得信号量许可,连接关闭时归还。许可数与连接池大小一致,
+ * 虚拟线程模式下成千上万的请求线程在公平信号量上排队,而不是同时涌入连接池;
+ * 同时也限制了JDBC驱动中被synchronized固定(pin)的载体线程数量。
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Semaphore permits;
+
+    private final long acquireTimeout;
+
+    /**
+     * @param acquireTimeout 等待许可的超时时间(毫秒)
+     */
+    public ConnectionLimitingDataSource(DataSource target, int permits, long acquireTimeout) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return wrap(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return wrap(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 剩余许可数
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * 等待许可的线程数
+     */
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("获取数据库连接许可超时(" + acquireTimeout + "ms)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("等待数据库连接许可被中断", e);
+        }
+    }
+
+    /**
+     * 代理连接,close时归还许可(只归还一次)
+     */
+    private Connection wrap(Connection connection) {
+        return CloseNotifyingConnection.wrap(connection, permits::release);
+    }
+
+    /**
+     * 关闭被包装的连接池
+     */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.admin.datasource;
+
+import com.admin.dto.PoolStats;
+import com.admin.mybatis.LatencyHistogram;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 数据库连接使用分析
+ * 记录获取连接的等待时间分布,以及按调用方法(借出连接时调用栈上第一个业务类方法)统计的连接占用时长;
+ * 定时扫描借出未归还的连接,占用超过阈值时抓取持有线程当前的调用栈,定位长事务、事务内远程调用等占住连接的位置。
+ * 与HikariCP的leak-detection-threshold不同,借出时不创建异常对象,只在超过阈值时抓一次栈。
+ * 指标 datasource.connection.acquire / datasource.connection.hold 按caller标签区分,随接口指标一起暴露。
+ */
+@Slf4j
+@Component
+public class ConnectionProfiler {
+
+    public static final String ACQUIRE_METRIC = "datasource.connection.acquire";
+
+    public static final String HOLD_METRIC = "datasource.connection.hold";
+
+    private static final String UNKNOWN_CALLER = "unknown";
+
+    /**
+     * 不作为调用方的包: 数据源包装和SQL拦截器本身
+     */
+    private static final String[] EXCLUDED_PACKAGES = {"com.admin.datasource.", "com.admin.mybatis."};
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${datasource.profiler.hold-threshold:2000}")
+    private long holdThresholdMillis;
+
+    @Value("${datasource.profiler.max-samples:50}")
+    private int maxSamples;
+
+    @Value("${datasource.profiler.caller-package:com.admin.}")
+    private String callerPackage;
+
+    private volatile LatencyHistogram acquireHistogram = new LatencyHistogram();
+
+    private final LongAdder acquireFailures = new LongAdder();
+
+    private final Map<String, Caller> callers = new ConcurrentHashMap<>();
+
+    private final Set<Lease> openLeases = ConcurrentHashMap.newKeySet();
+
+    private final Deque<PoolStats.LongHeld> samples = new ArrayDeque<>();
+
+    /**
+     * 连接借出成功
+     *
+     * @param startNanos 开始获取连接的时间(System.nanoTime)
+     * @return 借用记录,连接关闭时调用 {@link Lease#release()}
+     */
+    public Lease acquired(long startNanos) {
+        long now = System.nanoTime();
+        long waitNanos = now - startNanos;
+        acquireHistogram.record(waitNanos);
+        Caller caller = callers.computeIfAbsent(resolveCaller(), this::newCaller);
+        caller.recordAcquire(waitNanos);
+        Lease lease = new Lease(caller, Thread.currentThread(), now);
+        openLeases.add(lease);
+        return lease;
+    }
+
+    /**
+     * 获取连接失败(超时、数据库不可用等)
+     */
+    public void acquireFailed(long startNanos) {
+        acquireFailures.increment();
+        acquireHistogram.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 扫描借出未归还的连接,占用超过阈值的每次借用只抓取一次栈
+     */
+    @Scheduled(fixedDelayString = "${datasource.profiler.sweep-interval:1000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        long threshold = TimeUnit.MILLISECONDS.toNanos(holdThresholdMillis);
+        for (Lease lease : openLeases) {
+            if (lease.sample == null && now - lease.startNanos >= threshold) {
+                capture(lease, now);
+            }
+        }
+    }
+
+    /**
+     * 当前统计,调用方法按累计占用时长降序
+     */
+    public PoolStats snapshot(int limit) {
+        LatencyHistogram acquire = acquireHistogram;
+        PoolStats stats = new PoolStats();
+        stats.setAcquireCount(acquire.count());
+        stats.setAcquireFailures(acquireFailures.sum());
+        stats.setAcquireP50Millis(millis(acquire.percentile(0.50)));
+        stats.setAcquireP95Millis(millis(acquire.percentile(0.95)));
+        stats.setAcquireP99Millis(millis(acquire.percentile(0.99)));
+        stats.setAcquireMaxMillis(millis(acquire.maxMicros()));
+        stats.setOpenConnections(openLeases.size());
+
+        List<PoolStats.CallerStats> callerStats = new ArrayList<>(callers.size());
+        callers.forEach((name, caller) -> callerStats.add(caller.toStats(name)));
+        callerStats.sort(Comparator.comparing(PoolStats.CallerStats::getHoldTotalMillis).reversed());
+        stats.setCallers(limit > 0 && callerStats.size() > limit ? callerStats.subList(0, limit) : callerStats);
+        synchronized (samples) {
+            stats.setLongHeld(new ArrayList<>(samples));
+        }
+        return stats;
+    }
+
+    /**
+     * 清空统计(不影响借出中的连接)
+     */
+    public void reset() {
+        acquireHistogram = new LatencyHistogram();
+        acquireFailures.reset();
+        callers.clear();
+        synchronized (samples) {
+            samples.clear();
+        }
+    }
+
+    private void capture(Lease lease, long now) {
+        StackTraceElement[] stack = lease.thread.getStackTrace();
+        List<String> frames = new ArrayList<>(stack.length);
+        for (StackTraceElement element : stack) {
+            frames.add(element.toString());
+        }
+        PoolStats.LongHeld sample = new PoolStats.LongHeld();
+        sample.setCaller(lease.caller.name);
+        sample.setThread(lease.thread.getName());
+        sample.setAcquiredAt(System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(now - lease.startNanos));
+        sample.setHeldMillis(TimeUnit.NANOSECONDS.toMillis(now - lease.startNanos));
+        sample.setStackTrace(frames);
+        lease.sample = sample;
+        lease.caller.longHeld.increment();
+        synchronized (samples) {
+            if (samples.size() >= maxSamples) {
+                samples.removeFirst();
+            }
+            samples.addLast(sample);
+        }
+        log.warn("数据库连接占用过久: caller={} thread={} held={}ms\n\tat {}", sample.getCaller(), sample.getThread(),
+                sample.getHeldMillis(), String.join("\n\tat ", frames));
+    }
+
+    /**
+     * 调用栈上第一个业务类的方法,CGLIB代理类和lambda还原为声明它们的类和方法
+     */
+    private String resolveCaller() {
+        return WALKER.walk(frames -> frames
+                .filter(frame -> isCaller(frame.getClassName()))
+                .findFirst()
+                .map(frame -> describe(frame.getClassName(), frame.getMethodName()))
+                .orElse(UNKNOWN_CALLER));
+    }
+
+    private boolean isCaller(String className) {
+        if (!className.startsWith(callerPackage)) {
+            return false;
+        }
+        for (String excluded : EXCLUDED_PACKAGES) {
+            if (className.startsWith(excluded)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String describe(String className, String methodName) {
+        int proxy = className.indexOf("$$");
+        if (proxy > 0) {
+            className = className.substring(0, proxy);
+        }
+        if (methodName.startsWith("lambda$")) {
+            int end = methodName.indexOf('$', 7);
+            methodName = end > 7 ? methodName.substring(7, end) : methodName;
+        }
+        return className.substring(className.lastIndexOf('.') + 1) + "." + methodName;
+    }
+
+    private Caller newCaller(String name) {
+        Timer acquireTimer = null;
+        Timer holdTimer = null;
+        if (meterRegistry != null) {
+            acquireTimer = Timer.builder(ACQUIRE_METRIC)
+                    .description("获取数据库连接的等待时间")
+                    .tag("caller", name)
+                    .register(meterRegistry);
+            holdTimer = Timer.builder(HOLD_METRIC)
+                    .description("数据库连接从借出到归还的占用时间")
+                    .tag("caller", name)
+                    .register(meterRegistry);
+        }
+        return new Caller(name, acquireTimer, holdTimer);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * 一次连接借用
+     */
+    public final class Lease {
+        private final Caller caller;
+        private final Thread thread;
+        private final long startNanos;
+        private volatile PoolStats.LongHeld sample;
+
+        private Lease(Caller caller, Thread thread, long startNanos) {
+            this.caller = caller;
+            this.thread = thread;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * 连接归还
+         */
+        public void release() {
+            openLeases.remove(this);
+            long heldNanos = System.nanoTime() - startNanos;
+            caller.recordHold(heldNanos);
+            PoolStats.LongHeld captured = sample;
+            if (captured != null) {
+                captured.setReleasedAfterMillis(TimeUnit.NANOSECONDS.toMillis(heldNanos));
+            }
+        }
+    }
+
+    /**
+     * 单个调用方法的统计
+     */
+    private static final class Caller {
+        private final String name;
+        private final LongAdder acquireNanos = new LongAdder();
+        private final LongAccumulator acquireMaxNanos = new LongAccumulator(Math::max, 0);
+        private final LatencyHistogram hold = new LatencyHistogram();
+        private final LongAdder longHeld = new LongAdder();
+        private final Timer acquireTimer;
+        private final Timer holdTimer;
+
+        private Caller(String name, Timer acquireTimer, Timer holdTimer) {
+            this.name = name;
+            this.acquireTimer = acquireTimer;
+            this.holdTimer = holdTimer;
+        }
+
+        private void recordAcquire(long waitNanos) {
+            acquireNanos.add(waitNanos);
+            acquireMaxNanos.accumulate(waitNanos);
+            if (acquireTimer != null) {
+                acquireTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void recordHold(long heldNanos) {
+            hold.record(heldNanos);
+            if (holdTimer != null) {
+                holdTimer.record(heldNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private PoolStats.CallerStats toStats(String name) {
+            long count = hold.count();
+            PoolStats.CallerStats stats = new PoolStats.CallerStats();
+            stats.setCaller(name);
+            stats.setCount(count);
+            stats.setAcquireAvgMillis(count == 0 ? 0 : acquireNanos.sum() / 1e6 / count);
+            stats.setAcquireMaxMillis(acquireMaxNanos.get() / 1e6);
+            stats.setHoldTotalMillis(millis(hold.totalMicros()));
+            stats.setHoldP50Millis(millis(hold.percentile(0.50)));
+            stats.setHoldP95Millis(millis(hold.percentile(0.95)));
+            stats.setHoldP99Millis(millis(hold.percentile(0.99)));
+            stats.setHoldMaxMillis(millis(hold.maxMicros()));
+            stats.setLongHeldCount(longHeld.sum());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.admin.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Data;
+
+/**
+ * 连接池配置
+ * 各环境只在 datasource.pool 下覆盖需要调整的项,未配置的项取HikariCP默认值。
+ * 不提供连接检测SQL: HikariCP在未设置 connection-test-query 时使用JDBC4的 Connection.isValid 校验连接,
+ * MySQL驱动以协议级ping实现,比执行 SELECT 1 少一次语句解析和结果集往返
+ */
+@Data
+public class PoolProperties {
+
+    /**
+     * 连接池名称,同时作为指标的pool标签
+     */
+    private String poolName;
+
+    /**
+     * 最小空闲连接数,小于0时与 maximumPoolSize 一致
+     */
+    private int minimumIdle = -1;
+
+    private int maximumPoolSize = 10;
+
+    /**
+     * 获取连接的最长等待时间(毫秒)
+     */
+    private long connectionTimeout = 30000;
+
+    /**
+     * 校验连接(isValid)的超时时间(毫秒)
+     */
+    private long validationTimeout = 5000;
+
+    /**
+     * 空闲连接回收时间(毫秒),仅在 minimumIdle 小于 maximumPoolSize 时生效
+     */
+    private long idleTimeout = 600000;
+
+    /**
+     * 连接最长存活时间(毫秒),应比数据库的 wait_timeout 短
+     */
+    private long maxLifetime = 1800000;
+
+    /**
+     * 空闲连接保活间隔(毫秒),0表示不保活
+     */
+    private long keepaliveTime = 0;
+
+    /**
+     * HikariCP自带的连接泄漏检测阈值(毫秒),0表示关闭;占用时长统计见 datasource.profiler
+     */
+    private long leakDetectionThreshold = 0;
+
+    private boolean autoCommit = true;
+
+    /**
+     * 应用到连接池(连接池启动前调用)
+     */
+    public void applyTo(HikariDataSource dataSource) {
+        if (poolName != null && !poolName.isEmpty()) {
+            dataSource.setPoolName(poolName);
+        }
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setMinimumIdle(minimumIdle < 0 ? maximumPoolSize : minimumIdle);
+        dataSource.setConnectionTimeout(connectionTimeout);
+        dataSource.setValidationTimeout(validationTimeout);
+        dataSource.setIdleTimeout(idleTimeout);
+        dataSource.setMaxLifetime(maxLifetime);
+        dataSource.setKeepaliveTime(keepaliveTime);
+        dataSource.setLeakDetectionThreshold(leakDetectionThreshold);
+        dataSource.setAutoCommit(autoCommit);
+        dataSource.setConnectionTestQuery(null);
+    }
+}
@@ -0,0 +1,62 @@
+package com.admin.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 记录连接使用情况的数据源
+ * 包在最外层,获取等待包含并发限制的排队时间;连接关闭时把占用时长交给 {@link ConnectionProfiler}
+ */
+public class ProfilingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final ConnectionProfiler profiler;
+
+    public ProfilingDataSource(DataSource target, ConnectionProfiler profiler) {
+        super(target);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = super.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            profiler.acquireFailed(start);
+            throw e;
+        }
+        return wrap(connection, start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = super.getConnection(username, password);
+        } catch (SQLException | RuntimeException e) {
+            profiler.acquireFailed(start);
+            throw e;
+        }
+        return wrap(connection, start);
+    }
+
+    private Connection wrap(Connection connection, long start) {
+        ConnectionProfiler.Lease lease = profiler.acquired(start);
+        return CloseNotifyingConnection.wrap(connection, lease::release);
+    }
+
+    /**
+     * 关闭被包装的连接池
+     */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
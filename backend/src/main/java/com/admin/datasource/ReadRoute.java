@@ -0,0 +1,60 @@
+package com.admin.datasource;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 读写路由上下文
+ * 读写标记保存在线程上,由 {@link ReplicaReadAdvisor} 在只读方法和写事务方法的调用期间设置,内层方法的标记优先;
+ * 写标记保存在当前请求的属性中,请求结束自然失效,同一请求写过数据后的读取都回到主库(读己之写)
+ */
+public final class ReadRoute {
+
+    private static final String WRITTEN_ATTRIBUTE = ReadRoute.class.getName() + ".WRITTEN";
+
+    private static final ThreadLocal<Boolean> READ = new ThreadLocal<>();
+
+    private ReadRoute() {
+    }
+
+    /**
+     * 进入只读方法(read=true)或写事务方法(read=false)
+     *
+     * @return 进入前的标记,退出时传给 {@link #exit(Boolean)}
+     */
+    public static Boolean enter(boolean read) {
+        Boolean previous = READ.get();
+        READ.set(read);
+        return previous;
+    }
+
+    public static void exit(Boolean previous) {
+        if (previous == null) {
+            READ.remove();
+        } else {
+            READ.set(previous);
+        }
+    }
+
+    /**
+     * 当前是否在只读方法中(且没有进入内层的写事务方法)
+     */
+    public static boolean isRead() {
+        return Boolean.TRUE.equals(READ.get());
+    }
+
+    /**
+     * 记录当前请求写过数据(不在请求线程中时忽略)
+     */
+    public static void markWritten() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(WRITTEN_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public static boolean isWritten() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && attributes.getAttribute(WRITTEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+}
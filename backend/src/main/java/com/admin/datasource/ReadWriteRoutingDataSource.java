@@ -0,0 +1,106 @@
+package com.admin.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 读写分离数据源
+ * 在只读方法中({@link ReadRoute#isRead()})且本次请求未写过数据、副本延迟未超限时从副本获取连接,其余都走主库;
+ * 从副本获取连接失败时标记副本不可用并回到主库。
+ * 路由只发生在获取连接时: 事务内沿用事务开始时的连接,写事务中调用只读方法仍在主库上执行
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primary;
+
+    private final DataSource replica;
+
+    private final ReplicaMonitor monitor;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaMonitor monitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (routeToReplica()) {
+            try {
+                Connection connection = replica.getConnection();
+                monitor.routed(true);
+                return connection;
+            } catch (SQLException e) {
+                log.warn("获取只读副本连接失败,回到主库: {}", e.getMessage());
+                monitor.markDown(e);
+            }
+        }
+        monitor.routed(false);
+        return primary.getConnection();
+    }
+
+    /**
+     * 指定账号时只连接主库
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        monitor.routed(false);
+        return primary.getConnection(username, password);
+    }
+
+    private boolean routeToReplica() {
+        if (!ReadRoute.isRead() || ReadRoute.isWritten() || !monitor.isAvailable()) {
+            return false;
+        }
+        // 已有事务(非只读)时获取的连接用于写
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * 按主库解包,连接池指标等取主库连接池
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public DataSource getReplica() {
+        return replica;
+    }
+
+    /**
+     * 关闭主库和副本连接池
+     */
+    @Override
+    public void close() throws Exception {
+        try {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        } finally {
+            if (primary instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.admin.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 只读副本状态监控
+ * 定时在副本上查询复制延迟,副本不可连接、复制未运行或延迟超过 max-lag-seconds 时标记为不可用,
+ * 读请求回到主库,直到下一次检查恢复。同时统计路由到主库和副本的连接数。
+ * 指标: datasource.replica.lag(秒,不可用时为-1)、datasource.replica.available、datasource.route(按target标签区分)
+ */
+@Slf4j
+@Component
+public class ReplicaMonitor {
+
+    private static final String[] LAG_COLUMNS = {"Seconds_Behind_Source", "Seconds_Behind_Master"};
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private volatile DataSource replica;
+
+    private volatile ReplicaProperties properties;
+
+    private volatile boolean available;
+
+    private volatile long lagSeconds = -1;
+
+    private Counter primaryRoutes;
+
+    private Counter replicaRoutes;
+
+    /**
+     * 开始监控副本,立即执行一次检查
+     */
+    public void watch(DataSource replica, ReplicaProperties properties) {
+        this.replica = replica;
+        this.properties = properties;
+        if (meterRegistry != null) {
+            Gauge.builder("datasource.replica.lag", this, m -> m.lagSeconds)
+                    .description("只读副本复制延迟(秒)")
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.available", this, m -> m.available ? 1 : 0)
+                    .description("只读副本是否可用于读请求")
+                    .register(meterRegistry);
+            primaryRoutes = Counter.builder("datasource.route").tag("target", "primary")
+                    .description("按读写路由获取的连接数").register(meterRegistry);
+            replicaRoutes = Counter.builder("datasource.route").tag("target", "replica")
+                    .description("按读写路由获取的连接数").register(meterRegistry);
+        }
+        check();
+    }
+
+    /**
+     * 副本当前是否可用于读请求
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    /**
+     * 定时检查复制延迟
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval:1000}")
+    public void check() {
+        DataSource dataSource = replica;
+        if (dataSource == null) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            long lag = queryLag(connection);
+            lagSeconds = lag;
+            long maxLag = properties.getMaxLagSeconds();
+            update(lag >= 0 && lag <= maxLag, lag < 0 ? "复制未运行" : "复制延迟" + lag + "s,上限" + maxLag + "s");
+        } catch (SQLException | RuntimeException e) {
+            markDown(e);
+        }
+    }
+
+    /**
+     * 副本出错时立即标记不可用(获取连接失败等),由下一次检查恢复
+     */
+    public void markDown(Exception e) {
+        lagSeconds = -1;
+        update(false, "检查失败: " + e.getMessage());
+    }
+
+    /**
+     * 记录一次路由结果
+     */
+    void routed(boolean toReplica) {
+        Counter counter = toReplica ? replicaRoutes : primaryRoutes;
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * @return 复制延迟(秒),复制未运行时为-1
+     */
+    private long queryLag(Connection connection) throws SQLException {
+        String lagQuery = properties.getLagQuery();
+        if (!StringUtils.hasText(lagQuery)) {
+            return connection.isValid(1) ? 0 : -1;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                return -1;
+            }
+            long lag = rs.getLong(lagColumn(rs.getMetaData()));
+            return rs.wasNull() ? -1 : lag;
+        }
+    }
+
+    private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+        for (String name : LAG_COLUMNS) {
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                if (name.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                    return i;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * 可用状态变化时输出日志
+     */
+    private void update(boolean nowAvailable, String reason) {
+        if (available != nowAvailable) {
+            if (nowAvailable) {
+                log.info("只读副本可用,读请求路由到副本: {}", reason);
+            } else {
+                log.warn("只读副本不可用,读请求回到主库: {}", reason);
+            }
+        }
+        available = nowAvailable;
+    }
+}
@@ -0,0 +1,40 @@
+package com.admin.datasource;
+
+import lombok.Data;
+
+/**
+ * 只读副本配置
+ * 连接池参数与主库共用 {@link PoolProperties},在 datasource.replica.pool 下单独配置
+ */
+@Data
+public class ReplicaProperties {
+
+    /**
+     * 是否开启读写分离
+     */
+    private boolean enabled = false;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    /**
+     * 驱动类名,为空时按url自动识别
+     */
+    private String driverClassName;
+
+    /**
+     * 允许的最大复制延迟(秒),超过时读请求回到主库
+     */
+    private long maxLagSeconds = 1;
+
+    /**
+     * 在副本上查询复制延迟的SQL: 结果含 Seconds_Behind_Source/Seconds_Behind_Master 列时取该列,否则取第一列;
+     * 无结果行或值为NULL表示复制未运行。为空时只检查副本能否连接
+     */
+    private String lagQuery = "SHOW REPLICA STATUS";
+
+    private PoolProperties pool = new PoolProperties();
+}
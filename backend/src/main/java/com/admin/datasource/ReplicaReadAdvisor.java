@@ -0,0 +1,77 @@
+package com.admin.datasource;
+
+import com.admin.annotation.ReplicaRead;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 只读方法路由切面
+ * 匹配标注 {@link ReplicaRead}、@Transactional 的方法(方法上的注解优先于类上的),调用期间设置读写标记:
+ * @ReplicaRead 和 @Transactional(readOnly = true) 为读,其余 @Transactional 为写,只读方法内调用的写事务仍走主库。
+ * 排在事务切面之前,事务开启时获取的连接即按标记路由
+ */
+public class ReplicaReadAdvisor extends StaticMethodMatcherPointcutAdvisor implements MethodInterceptor {
+
+    /**
+     * 方法的路由结果缓存,只有匹配的方法会进入拦截,结果只有读(true)和写(false)两种
+     */
+    private final Map<MethodClassKey, Boolean> routes = new ConcurrentHashMap<>();
+
+    public ReplicaReadAdvisor() {
+        setAdvice(this);
+        setOrder(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        return route(method, targetClass) != null;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> targetClass = invocation.getThis() == null ? null : AopUtils.getTargetClass(invocation.getThis());
+        Method method = invocation.getMethod();
+        Boolean read = routes.computeIfAbsent(new MethodClassKey(method, targetClass),
+                key -> Boolean.TRUE.equals(route(method, targetClass)));
+        Boolean previous = ReadRoute.enter(read);
+        try {
+            return invocation.proceed();
+        } finally {
+            ReadRoute.exit(previous);
+        }
+    }
+
+    /**
+     * @return true为读,false为写,null表示不参与路由
+     */
+    private static Boolean route(Method method, Class<?> targetClass) {
+        Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+        Boolean read = readOnly(specific);
+        if (read == null && targetClass != null) {
+            read = readOnly(targetClass);
+        }
+        return read;
+    }
+
+    /**
+     * @return 有 @ReplicaRead 时为true,有 @Transactional 时取readOnly,都没有时为null
+     */
+    private static Boolean readOnly(AnnotatedElement element) {
+        if (AnnotatedElementUtils.hasAnnotation(element, ReplicaRead.class)) {
+            return true;
+        }
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(element, Transactional.class);
+        return transactional == null ? null : transactional.readOnly();
+    }
+}
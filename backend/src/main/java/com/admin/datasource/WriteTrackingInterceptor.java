@@ -0,0 +1,24 @@
+package com.admin.datasource;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+
+/**
+ * 写操作记录拦截器
+ * 执行insert/update/delete前标记当前请求已写过数据,之后同一请求内的只读方法也走主库,避免读到副本上尚未同步的旧数据
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class WriteTrackingInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        ReadRoute.markWritten();
+        return invocation.proceed();
+    }
+}
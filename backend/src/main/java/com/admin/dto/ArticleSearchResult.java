@@ -0,0 +1,50 @@
+package com.admin.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 文章全文检索结果DTO
+ */
+@Data
+@Schema(description = "文章全文检索结果")
+public class ArticleSearchResult {
+
+    @Schema(description = "命中的文章总数")
+    private Integer total;
+
+    @Schema(description = "当前页命中的文章(按相关度降序)")
+    private List<Hit> records;
+
+    /**
+     * 单篇命中的文章
+     */
+    @Data
+    @Schema(description = "命中的文章")
+    public static class Hit {
+
+        @Schema(description = "文章ID")
+        private Long id;
+
+        @Schema(description = "文章标题")
+        private String title;
+
+        @Schema(description = "作者ID")
+        private Long authorId;
+
+        @Schema(description = "状态: 0-草稿, 1-已发布")
+        private Integer status;
+
+        @Schema(description = "创建时间")
+        private LocalDateTime createTime;
+
+        @Schema(description = "相关度得分(BM25)")
+        private Double score;
+
+        @Schema(description = "内容摘要(首个命中位置附近)")
+        private String snippet;
+    }
+}
@@ -0,0 +1,39 @@
+package com.admin.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 消息代理扇出统计DTO
+ */
+@Data
+@Schema(description = "消息代理扇出统计")
+public class BrokerStats {
+
+    @Schema(description = "代理模式: simple/sharded/relay")
+    private String mode;
+
+    @Schema(description = "广播消息数")
+    private Long messages;
+
+    @Schema(description = "投递次数")
+    private Long deliveries;
+
+    @Schema(description = "平均每条消息的订阅者数")
+    private Double avgFanout;
+
+    @Schema(description = "单条消息最大订阅者数")
+    private Long maxFanout;
+
+    @Schema(description = "平均扇出耗时(微秒)")
+    private Double avgMicros;
+
+    @Schema(description = "最大扇出耗时(微秒)")
+    private Double maxMicros;
+
+    @Schema(description = "每次投递的平均耗时(纳秒)")
+    private Double nanosPerDelivery;
+
+    @Schema(description = "当前订阅数(仅分片模式)")
+    private Integer subscriptions;
+}
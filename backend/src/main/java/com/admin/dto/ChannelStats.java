@@ -0,0 +1,69 @@
+package com.admin.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * WebSocket通道统计DTO
+ */
+@Data
+@Schema(description = "WebSocket通道统计")
+public class ChannelStats {
+
+    @Schema(description = "客户端入站通道线程池")
+    private ExecutorStats inbound;
+
+    @Schema(description = "客户端出站通道线程池")
+    private ExecutorStats outbound;
+
+    @Schema(description = "WebSocket会话数")
+    private Integer sessions;
+
+    @Schema(description = "出站排队消息总数")
+    private Integer pendingMessages;
+
+    @Schema(description = "单个会话最大排队消息数")
+    private Integer maxSessionPending;
+
+    @Schema(description = "慢订阅者策略: drop/coalesce/disconnect")
+    private String policy;
+
+    @Schema(description = "丢弃的消息数")
+    private Long dropped;
+
+    @Schema(description = "合并的消息数")
+    private Long coalesced;
+
+    @Schema(description = "断开的慢订阅者会话数")
+    private Long disconnected;
+
+    /**
+     * 线程池统计
+     */
+    @Data
+    @Schema(description = "线程池统计")
+    public static class ExecutorStats {
+
+        @Schema(description = "当前线程数")
+        private Integer poolSize;
+
+        @Schema(description = "活动线程数")
+        private Integer activeCount;
+
+        @Schema(description = "队列深度")
+        private Integer queueSize;
+
+        @Schema(description = "已完成任务数")
+        private Long completedTasks;
+
+        public static ExecutorStats of(ThreadPoolTaskExecutor executor) {
+            ExecutorStats stats = new ExecutorStats();
+            stats.setPoolSize(executor.getPoolSize());
+            stats.setActiveCount(executor.getActiveCount());
+            stats.setQueueSize(executor.getQueueSize());
+            stats.setCompletedTasks(executor.getThreadPoolExecutor().getCompletedTaskCount());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.admin.dto;
+
+import com.admin.entity.ChatMessage;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 聊天历史分页结果DTO
+ */
+@Data
+@Schema(description = "聊天历史分页结果")
+public class ChatHistoryPage {
+
+    @Schema(description = "消息列表(按发送时间正序)")
+    private List<ChatMessage> messages;
+
+    @Schema(description = "是否还有更早的消息")
+    private Boolean hasMore;
+
+    @Schema(description = "下一页游标:发送时间")
+    private LocalDateTime nextBeforeTime;
+
+    @Schema(description = "下一页游标:消息ID")
+    private Long nextBeforeId;
+}
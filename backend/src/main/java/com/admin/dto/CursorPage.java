@@ -0,0 +1,26 @@
+package com.admin.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页结果DTO
+ */
+@Data
+@Schema(description = "游标分页结果")
+public class CursorPage<T> {
+
+    @Schema(description = "当前页数据")
+    private List<T> records;
+
+    @Schema(description = "是否还有下一页")
+    private Boolean hasMore;
+
+    @Schema(description = "下一页游标,没有下一页时为空")
+    private String nextCursor;
+
+    @Schema(description = "总数(仅withTotal=true时返回,取自带TTL的计数缓存,可能略有滞后)")
+    private Long total;
+}
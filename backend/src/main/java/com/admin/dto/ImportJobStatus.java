@@ -0,0 +1,48 @@
+package com.admin.dto;
+
+import com.admin.excel.ImportJob;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 导入任务状态DTO
+ */
+@Data
+@Schema(description = "导入任务状态")
+public class ImportJobStatus {
+
+    @Schema(description = "任务ID")
+    private String jobId;
+
+    @Schema(description = "文件名")
+    private String fileName;
+
+    @Schema(description = "状态: PENDING, RUNNING, COMPLETED, FAILED, CANCELLED")
+    private String status;
+
+    @Schema(description = "表头")
+    private List<String> headers;
+
+    @Schema(description = "已解析行数")
+    private Integer rowsParsed;
+
+    @Schema(description = "解析速度(行/秒)")
+    private Long throughput;
+
+    @Schema(description = "错误信息")
+    private String error;
+
+    public static ImportJobStatus of(ImportJob job) {
+        ImportJobStatus status = new ImportJobStatus();
+        status.setJobId(job.getId());
+        status.setFileName(job.getFileName());
+        status.setStatus(job.getStatus().name());
+        status.setHeaders(job.getHeaders());
+        status.setRowsParsed(job.getRowsParsed());
+        status.setThroughput(job.getThroughput());
+        status.setError(job.getError());
+        return status;
+    }
+}
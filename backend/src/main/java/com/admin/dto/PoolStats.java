@@ -0,0 +1,105 @@
+package com.admin.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 数据库连接使用统计DTO
+ */
+@Data
+@Schema(description = "数据库连接使用统计")
+public class PoolStats {
+
+    @Schema(description = "获取连接次数")
+    private Long acquireCount;
+
+    @Schema(description = "获取连接失败次数(超时等)")
+    private Long acquireFailures;
+
+    @Schema(description = "P50获取等待(毫秒)")
+    private Double acquireP50Millis;
+
+    @Schema(description = "P95获取等待(毫秒)")
+    private Double acquireP95Millis;
+
+    @Schema(description = "P99获取等待(毫秒)")
+    private Double acquireP99Millis;
+
+    @Schema(description = "最大获取等待(毫秒)")
+    private Double acquireMaxMillis;
+
+    @Schema(description = "当前借出未归还的连接数")
+    private Integer openConnections;
+
+    @Schema(description = "各调用方法的连接使用统计,按累计占用时长降序")
+    private List<CallerStats> callers;
+
+    @Schema(description = "最近捕获的长时间占用连接")
+    private List<LongHeld> longHeld;
+
+    /**
+     * 单个调用方法的连接使用统计
+     */
+    @Data
+    @Schema(description = "调用方法的连接使用统计")
+    public static class CallerStats {
+
+        @Schema(description = "调用方法(类名.方法名)")
+        private String caller;
+
+        @Schema(description = "借用次数")
+        private Long count;
+
+        @Schema(description = "平均获取等待(毫秒)")
+        private Double acquireAvgMillis;
+
+        @Schema(description = "最大获取等待(毫秒)")
+        private Double acquireMaxMillis;
+
+        @Schema(description = "累计占用(毫秒)")
+        private Double holdTotalMillis;
+
+        @Schema(description = "P50占用(毫秒)")
+        private Double holdP50Millis;
+
+        @Schema(description = "P95占用(毫秒)")
+        private Double holdP95Millis;
+
+        @Schema(description = "P99占用(毫秒)")
+        private Double holdP99Millis;
+
+        @Schema(description = "最大占用(毫秒)")
+        private Double holdMaxMillis;
+
+        @Schema(description = "超过阈值的长时间占用次数")
+        private Long longHeldCount;
+    }
+
+    /**
+     * 长时间占用连接的现场
+     */
+    @Data
+    @Schema(description = "长时间占用连接的现场")
+    public static class LongHeld {
+
+        @Schema(description = "调用方法")
+        private String caller;
+
+        @Schema(description = "持有连接的线程")
+        private String thread;
+
+        @Schema(description = "借出时间(毫秒时间戳)")
+        private Long acquiredAt;
+
+        @Schema(description = "捕获时已占用(毫秒)")
+        private Long heldMillis;
+
+        @Schema(description = "归还时的总占用(毫秒),捕获后仍未归还时为空")
+        private Long releasedAfterMillis;
+
+        @Schema(description = "捕获时持有线程的调用栈")
+        private List<String> stackTrace;
+    }
+}
@@ -0,0 +1,39 @@
+package com.admin.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * SQL执行耗时统计DTO
+ */
+@Data
+@Schema(description = "SQL执行耗时统计")
+public class SqlStats {
+
+    @Schema(description = "语句ID(Mapper方法全名)")
+    private String statementId;
+
+    @Schema(description = "执行次数")
+    private Long count;
+
+    @Schema(description = "慢SQL次数")
+    private Long slowCount;
+
+    @Schema(description = "累计耗时(毫秒)")
+    private Double totalMillis;
+
+    @Schema(description = "平均耗时(毫秒)")
+    private Double avgMillis;
+
+    @Schema(description = "P50耗时(毫秒)")
+    private Double p50Millis;
+
+    @Schema(description = "P95耗时(毫秒)")
+    private Double p95Millis;
+
+    @Schema(description = "P99耗时(毫秒)")
+    private Double p99Millis;
+
+    @Schema(description = "最大耗时(毫秒)")
+    private Double maxMillis;
+}
@@ -0,0 +1,27 @@
+package com.admin.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 分片上传握手请求DTO
+ */
+@Data
+@Schema(description = "分片上传握手请求")
+public class UploadInitRequest {
+
+    @Schema(description = "文件名", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String fileName;
+
+    @Schema(description = "文件大小(字节)", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Long fileSize;
+
+    @Schema(description = "分片大小(字节),不传时使用服务端默认值")
+    private Integer chunkSize;
+
+    @Schema(description = "文件内容的SHA-256(十六进制),用户已有相同内容的文件时秒传,合并后也会用于校验")
+    private String sha256;
+
+    @Schema(description = "客户端文件标识(如文件哈希),相同标识再次握手时续传原会话")
+    private String fileKey;
+}
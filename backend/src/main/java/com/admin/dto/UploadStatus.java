@@ -0,0 +1,74 @@
+package com.admin.dto;
+
+import com.admin.entity.FileRecord;
+import com.admin.upload.UploadSession;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 分片上传状态DTO
+ */
+@Data
+@Schema(description = "分片上传状态")
+public class UploadStatus {
+
+    @Schema(description = "上传会话ID")
+    private String uploadId;
+
+    @Schema(description = "文件名")
+    private String fileName;
+
+    @Schema(description = "文件大小(字节)")
+    private Long fileSize;
+
+    @Schema(description = "分片大小(字节)")
+    private Integer chunkSize;
+
+    @Schema(description = "分片总数")
+    private Integer totalChunks;
+
+    @Schema(description = "已上传分片数")
+    private Integer uploadedChunks;
+
+    @Schema(description = "尚未上传的分片序号(从0开始)")
+    private List<Integer> missingChunks;
+
+    @Schema(description = "状态: UPLOADING, MERGING, COMPLETED")
+    private String status;
+
+    @Schema(description = "上传完成后的文件ID")
+    private Long fileId;
+
+    @Schema(description = "是否秒传(用户已有相同内容的文件,未上传任何分片)")
+    private Boolean instant;
+
+    public static UploadStatus of(UploadSession session) {
+        UploadStatus status = new UploadStatus();
+        status.setUploadId(session.getId());
+        status.setFileName(session.getFileName());
+        status.setFileSize(session.getFileSize());
+        status.setChunkSize(session.getChunkSize());
+        status.setTotalChunks(session.getTotalChunks());
+        status.setUploadedChunks(session.getUploadedChunks());
+        status.setMissingChunks(session.getMissingChunks());
+        status.setStatus(session.getStatus().name());
+        status.setFileId(session.getFileId());
+        status.setInstant(false);
+        return status;
+    }
+
+    public static UploadStatus instant(FileRecord file) {
+        UploadStatus status = new UploadStatus();
+        status.setFileName(file.getFileName());
+        status.setFileSize(file.getFileSize());
+        status.setTotalChunks(0);
+        status.setUploadedChunks(0);
+        status.setMissingChunks(List.of());
+        status.setStatus(UploadSession.Status.COMPLETED.name());
+        status.setFileId(file.getId());
+        status.setInstant(true);
+        return status;
+    }
+}
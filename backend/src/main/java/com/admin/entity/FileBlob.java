@@ -0,0 +1,31 @@
+package com.admin.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文件内容实体类,按内容的SHA-256去重存储
+ */
+@Data
+@TableName("file_blob")
+@Schema(description = "文件内容实体")
+public class FileBlob {
+
+    @TableId(type = IdType.INPUT)
+    @Schema(description = "内容SHA-256(十六进制小写)")
+    private String sha256;
+
+    @Schema(description = "内容大小(字节)")
+    private Long fileSize;
+
+    @Schema(description = "引用该内容的文件数")
+    private Integer refCount;
+
+    @Schema(description = "创建时间")
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,37 @@
+package com.admin.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户文件实体类,内容指向 {@link FileBlob}
+ */
+@Data
+@TableName("file_record")
+@Schema(description = "用户文件实体")
+public class FileRecord {
+
+    @TableId(type = IdType.AUTO)
+    @Schema(description = "文件ID")
+    private Long id;
+
+    @Schema(description = "上传者ID")
+    private Long userId;
+
+    @Schema(description = "文件名")
+    private String fileName;
+
+    @Schema(description = "内容SHA-256")
+    private String sha256;
+
+    @Schema(description = "文件大小(字节)")
+    private Long fileSize;
+
+    @Schema(description = "创建时间")
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,160 @@
+package com.admin.excel;
+
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 基于磁盘的共享字符串表
+ * 解析sharedStrings.xml时将每个字符串以UTF-8顺序写入临时文件,内存中只保留偏移量数组,
+ * 按需从文件读取,适用于共享字符串极多的大文件
+ */
+public class DiskSharedStrings implements SharedStrings, Closeable {
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    /**
+     * 第i个字符串位于 [offsets[i], offsets[i+1])
+     */
+    private long[] offsets = new long[1024];
+
+    private int count;
+
+    public DiskSharedStrings(InputStream sst) throws IOException {
+        this.file = Files.createTempFile("sst-", ".bin");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                XMLReader reader = XMLHelper.newXMLReader();
+                reader.setContentHandler(new SstHandler(out));
+                reader.parse(new InputSource(sst));
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (SAXException | ParserConfigurationException e) {
+            Files.deleteIfExists(file);
+            throw new IOException("共享字符串表解析失败: " + e.getMessage(), e);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    @Override
+    public RichTextString getItemAt(int idx) {
+        if (idx < 0 || idx >= count) {
+            throw new IndexOutOfBoundsException("共享字符串索引越界: " + idx);
+        }
+        long start = offsets[idx];
+        ByteBuffer buffer = ByteBuffer.allocate((int) (offsets[idx + 1] - start));
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new XSSFRichTextString(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getUniqueCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * 解析 <si> 条目,拼接其中的 <t> 文本(忽略拼音注音 <rPh>)
+     */
+    private class SstHandler extends DefaultHandler {
+        private final OutputStream out;
+        private final StringBuilder text = new StringBuilder();
+        private long position;
+        private boolean inText;
+        private boolean inPhonetic;
+
+        private SstHandler(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "si" -> text.setLength(0);
+                case "rPh" -> inPhonetic = true;
+                case "t" -> inText = !inPhonetic;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "t" -> inText = false;
+                case "rPh" -> inPhonetic = false;
+                case "si" -> append();
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        private void append() throws SAXException {
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            try {
+                out.write(bytes);
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+            if (count + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[count] = position;
+            position += bytes.length;
+            offsets[++count] = position;
+        }
+    }
+}
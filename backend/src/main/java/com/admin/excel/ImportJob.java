@@ -0,0 +1,212 @@
+package com.admin.excel;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Excel导入任务
+ * 解析出的数据行以JSON行格式写入磁盘临时文件,内存中只保留每行的偏移量,支持按页读取
+ */
+public class ImportJob {
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private static final TypeReference<List<String>> ROW_TYPE = new TypeReference<>() {
+    };
+
+    @Getter
+    private final String id;
+
+    @Getter
+    private final Long userId;
+
+    @Getter
+    private final String fileName;
+
+    /**
+     * 上传的Excel临时文件
+     */
+    @Getter
+    private final Path sourceFile;
+
+    private final Path rowsFile;
+
+    private final ObjectMapper objectMapper;
+
+    private OutputStream rowsOut;
+
+    private long[] offsets = new long[1024];
+
+    @Getter
+    private volatile Status status = Status.PENDING;
+
+    @Getter
+    private volatile List<String> headers = List.of();
+
+    @Getter
+    private volatile int rowsParsed;
+
+    @Getter
+    private volatile String error;
+
+    @Getter
+    private volatile long startTime;
+
+    @Getter
+    private volatile long endTime;
+
+    private volatile boolean cancelRequested;
+
+    public ImportJob(String id, Long userId, String fileName, Path sourceFile, ObjectMapper objectMapper) throws IOException {
+        this.id = id;
+        this.userId = userId;
+        this.fileName = fileName;
+        this.sourceFile = sourceFile;
+        this.objectMapper = objectMapper;
+        this.rowsFile = Files.createTempFile("import-rows-", ".jsonl");
+    }
+
+    /**
+     * 开始执行,任务在排队期间已被取消时返回false
+     */
+    public synchronized boolean start() throws IOException {
+        if (cancelRequested) {
+            finish(Status.CANCELLED, null);
+            return false;
+        }
+        rowsOut = new BufferedOutputStream(Files.newOutputStream(rowsFile));
+        startTime = System.currentTimeMillis();
+        status = Status.RUNNING;
+        return true;
+    }
+
+    public void setHeaders(List<String> headers) {
+        this.headers = List.copyOf(headers);
+    }
+
+    /**
+     * 追加一批数据行,写入后即可分页读取
+     */
+    public synchronized void append(List<List<String>> rows) throws IOException {
+        for (List<String> row : rows) {
+            if (cancelRequested) {
+                throw new ImportCancelledException();
+            }
+            byte[] line = objectMapper.writeValueAsBytes(row);
+            rowsOut.write(line);
+            rowsOut.write('\n');
+            if (rowsParsed + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[rowsParsed + 1] = offsets[rowsParsed] + line.length + 1;
+            rowsParsed++;
+        }
+        rowsOut.flush();
+    }
+
+    /**
+     * 分页读取已解析的数据行
+     */
+    public synchronized List<List<String>> readRows(int page, int size) throws IOException {
+        // 按long计算偏移,页码过大时不会溢出成负数或回绕到前面的页
+        long offset = Math.max(page - 1L, 0) * size;
+        if (size <= 0 || offset >= rowsParsed) {
+            return List.of();
+        }
+        int from = (int) offset;
+        int to = (int) Math.min(offset + size, rowsParsed);
+        ByteBuffer buffer = ByteBuffer.allocate((int) (offsets[to] - offsets[from]));
+        try (FileChannel channel = FileChannel.open(rowsFile, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer, offsets[from] + buffer.position()) >= 0) {
+                // 读取直到填满缓冲区
+            }
+        }
+        List<List<String>> rows = new ArrayList<>(to - from);
+        byte[] bytes = buffer.array();
+        for (int i = from; i < to; i++) {
+            int start = (int) (offsets[i] - offsets[from]);
+            int length = (int) (offsets[i + 1] - offsets[i]) - 1;
+            rows.add(objectMapper.readValue(bytes, start, length, ROW_TYPE));
+        }
+        return rows;
+    }
+
+    /**
+     * 请求取消,正在解析的任务在处理下一行时中止
+     */
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    public synchronized void finish(Status finalStatus, String error) {
+        this.status = finalStatus;
+        this.error = error;
+        this.endTime = System.currentTimeMillis();
+        closeQuietly();
+    }
+
+    public boolean isFinished() {
+        Status s = status;
+        return s == Status.COMPLETED || s == Status.FAILED || s == Status.CANCELLED;
+    }
+
+    /**
+     * 解析速度(行/秒)
+     */
+    public long getThroughput() {
+        long begin = startTime;
+        if (begin == 0) {
+            return 0;
+        }
+        long elapsed = (endTime > 0 ? endTime : System.currentTimeMillis()) - begin;
+        return elapsed <= 0 ? rowsParsed : rowsParsed * 1000L / elapsed;
+    }
+
+    /**
+     * 删除任务相关的临时文件
+     */
+    public synchronized void cleanup() {
+        closeQuietly();
+        try {
+            Files.deleteIfExists(sourceFile);
+            Files.deleteIfExists(rowsFile);
+        } catch (IOException ignored) {
+            // 临时文件删除失败不影响任务清理
+        }
+    }
+
+    private void closeQuietly() {
+        if (rowsOut != null) {
+            try {
+                rowsOut.close();
+            } catch (IOException ignored) {
+                // 忽略关闭异常
+            }
+            rowsOut = null;
+        }
+    }
+
+    /**
+     * 任务被取消时用于中止解析
+     */
+    public static class ImportCancelledException extends RuntimeException {
+        public ImportCancelledException() {
+            super("导入任务已取消");
+        }
+    }
+}
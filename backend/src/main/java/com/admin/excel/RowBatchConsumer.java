@@ -0,0 +1,22 @@
+package com.admin.excel;
+
+import java.util.List;
+
+/**
+ * Excel行批量消费者
+ * 解析器按固定批次大小推送数据行,可用于批量入库、数据校验等
+ */
+public interface RowBatchConsumer {
+
+    /**
+     * 接收表头(第一行)
+     */
+    default void onHeader(List<String> headers) {
+    }
+
+    /**
+     * 接收一批数据行,每行的单元格数与表头一致,缺失的单元格为空字符串
+     * 抛出运行时异常将中止解析
+     */
+    void accept(List<List<String>> rows);
+}
@@ -0,0 +1,161 @@
+package com.admin.excel;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 基于SAX事件的流式Excel(xlsx)读取器
+ * 逐行解析第一个工作表,按固定批次推送给 {@link RowBatchConsumer},任何时刻内存中最多只有一个批次的数据
+ */
+public class StreamingExcelReader {
+
+    private final int batchSize;
+
+    private final boolean sharedStringsOnDisk;
+
+    /**
+     * @param batchSize           每批推送的行数
+     * @param sharedStringsOnDisk 共享字符串表是否存放在磁盘临时文件中
+     */
+    public StreamingExcelReader(int batchSize, boolean sharedStringsOnDisk) {
+        this.batchSize = batchSize;
+        this.sharedStringsOnDisk = sharedStringsOnDisk;
+    }
+
+    /**
+     * 读取Excel文件的第一个工作表
+     */
+    public void read(File file, RowBatchConsumer consumer) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            SharedStrings strings = openSharedStrings(pkg);
+            try {
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                if (!sheets.hasNext()) {
+                    return;
+                }
+                try (InputStream sheet = sheets.next()) {
+                    RowCollector collector = new RowCollector(consumer);
+                    XMLReader xmlReader = XMLHelper.newXMLReader();
+                    xmlReader.setContentHandler(new XSSFSheetXMLHandler(
+                            reader.getStylesTable(), strings, collector, new DataFormatter(), false));
+                    xmlReader.parse(new InputSource(sheet));
+                    collector.flush();
+                }
+            } finally {
+                if (strings instanceof Closeable closeable) {
+                    closeable.close();
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Excel解析失败: " + e.getMessage(), e);
+        }
+    }
+
+    private SharedStrings openSharedStrings(OPCPackage pkg) throws IOException, SAXException {
+        if (!sharedStringsOnDisk) {
+            return new ReadOnlySharedStringsTable(pkg, false);
+        }
+        List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        if (parts.isEmpty()) {
+            return new ReadOnlySharedStringsTable(pkg, false);
+        }
+        try (InputStream in = parts.get(0).getInputStream()) {
+            return new DiskSharedStrings(in);
+        }
+    }
+
+    /**
+     * 收集单元格并按批次推送数据行
+     */
+    private class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final RowBatchConsumer consumer;
+        private List<String> headers;
+        private List<List<String>> batch = new ArrayList<>(batchSize);
+        private String[] current;
+        private int currentRow;
+        private int currentCol;
+
+        private RowCollector(RowBatchConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            currentRow = rowNum;
+            currentCol = -1;
+            current = headers == null ? null : new String[headers.size()];
+            if (current != null) {
+                Arrays.fill(current, "");
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            currentCol = cellReference != null ? new CellReference(cellReference).getCol() : currentCol + 1;
+            String value = formattedValue != null ? formattedValue : "";
+            if (headers == null) {
+                if (current == null) {
+                    current = new String[0];
+                }
+                if (currentCol >= current.length) {
+                    String[] grown = Arrays.copyOf(current, currentCol + 1);
+                    Arrays.fill(grown, current.length, grown.length, "");
+                    current = grown;
+                }
+                current[currentCol] = value;
+            } else if (currentCol < current.length) {
+                current[currentCol] = value;
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (headers == null) {
+                // 第一行作为表头
+                headers = currentRow == 0 && current != null ? List.of(current) : List.of();
+                consumer.onHeader(headers);
+                if (currentRow != 0) {
+                    batch.add(Arrays.asList(new String[0]));
+                }
+                return;
+            }
+            batch.add(Arrays.asList(current));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!batch.isEmpty()) {
+                List<List<String>> rows = batch;
+                batch = new ArrayList<>(batchSize);
+                consumer.accept(rows);
+            }
+        }
+    }
+}
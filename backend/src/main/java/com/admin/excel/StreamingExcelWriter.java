@@ -0,0 +1,87 @@
+package com.admin.excel;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 流式Excel写入器
+ * 基于SXSSF,内存中只保留最近rowWindow行,其余行刷写到(可压缩的)临时文件,堆内存占用与总行数无关
+ */
+public class StreamingExcelWriter implements AutoCloseable {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final int MAX_TEXT_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+
+    private final SXSSFWorkbook workbook;
+
+    private final Sheet sheet;
+
+    private int rowIndex = 0;
+
+    public StreamingExcelWriter(String sheetName, int rowWindow, boolean compressTempFiles) {
+        this.workbook = new SXSSFWorkbook(rowWindow);
+        this.workbook.setCompressTempFiles(compressTempFiles);
+        this.sheet = workbook.createSheet(sheetName);
+    }
+
+    /**
+     * 追加一行
+     */
+    public void writeRow(List<?> values) {
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < values.size(); i++) {
+            setCellValue(row.createCell(i), values.get(i));
+        }
+    }
+
+    /**
+     * 已写入的行数(含表头)
+     */
+    public int getRowCount() {
+        return rowIndex;
+    }
+
+    /**
+     * 将工作簿写出到输出流
+     */
+    public void finish(OutputStream out) throws IOException {
+        workbook.write(out);
+        out.flush();
+    }
+
+    /**
+     * 关闭工作簿并删除临时文件
+     */
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+
+    private void setCellValue(Cell cell, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Number number) {
+            cell.setCellValue(number.doubleValue());
+        } else if (value instanceof Boolean bool) {
+            cell.setCellValue(bool);
+        } else if (value instanceof LocalDateTime time) {
+            cell.setCellValue(time.format(DATE_TIME_FORMATTER));
+        } else {
+            String text = String.valueOf(value);
+            // 超过单元格最大长度的文本截断
+            cell.setCellValue(text.length() > MAX_TEXT_LENGTH ? text.substring(0, MAX_TEXT_LENGTH) : text);
+        }
+    }
+}
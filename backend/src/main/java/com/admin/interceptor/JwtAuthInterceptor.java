@@ -1,8 +1,12 @@
 package com.admin.interceptor;
 
+import com.admin.filter.TraceIdFilter;
 import com.admin.util.JwtUtil;
+import com.admin.util.LogUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
@@ -10,7 +14,9 @@ import org.springframework.web.servlet.HandlerInterceptor;
 /**
  * JWT认证拦截器
  * 验证Token有效性,并将用户信息存入请求属性
+ * 认证过程日志为DEBUG级别(logging.level.com.admin.interceptor=debug开启),Token脱敏输出
  */
+@Slf4j
 @Component
 public class JwtAuthInterceptor implements HandlerInterceptor {
 
@@ -26,38 +32,37 @@ public class JwtAuthInterceptor implements HandlerInterceptor {
 
         // 白名单放行
         String requestURI = request.getRequestURI();
-        System.out.println("[DEBUG] Request URI: " + requestURI);
         if (requestURI.contains("/auth/login") ||
                 requestURI.contains("/auth/logout") ||
                 requestURI.contains("/excel/export")) {
-            System.out.println("[DEBUG] 白名单放行: " + requestURI);
+            log.debug("auth uri={} result=whitelist", requestURI);
             return true;
         }
 
         // 获取Token
         String token = request.getHeader("Authorization");
-        System.out.println("[DEBUG] Authorization Header: " + token);
         if (token != null && token.startsWith("Bearer ")) {
             token = token.substring(7);
         }
-        System.out.println("[DEBUG] Extracted Token: " + token);
 
-        // 验证Token
-        if (token == null || !jwtUtil.validateToken(token)) {
-            System.out.println("[DEBUG] Token validation failed! Token is null: " + (token == null));
+        // 验证并解析Token(单次解析)
+        JwtUtil.TokenInfo tokenInfo = jwtUtil.verify(token);
+        if (tokenInfo == null) {
+            log.debug("auth uri={} result=rejected token={}", requestURI, LogUtils.redactToken(token));
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.setContentType("application/json;charset=UTF-8");
             try {
                 response.getWriter().write("{\"code\":401,\"message\":\"未授权,请先登录\"}");
             } catch (Exception e) {
-                e.printStackTrace();
+                log.error("写入未授权响应失败", e);
             }
             return false;
         }
 
         // 将用户ID存入请求属性,供后续使用
-        Long userId = jwtUtil.getUserIdFromToken(token);
-        System.out.println("[DEBUG] User ID from token: " + userId);
+        Long userId = tokenInfo.getUserId();
+        log.debug("auth uri={} result=ok userId={} token={}", requestURI, userId, LogUtils.redactToken(token));
+        MDC.put(TraceIdFilter.USER_ID, String.valueOf(userId));
         request.setAttribute("userId", userId);
         request.setAttribute("token", token);
 
@@ -4,6 +4,7 @@ import com.admin.annotation.RequiresPermission;
 import com.admin.service.PermissionService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
@@ -13,6 +14,7 @@ import org.springframework.web.servlet.HandlerInterceptor;
  * 权限校验拦截器
  * 检查用户是否拥有访问接口所需的权限
  */
+@Slf4j
 @Component
 public class PermissionInterceptor implements HandlerInterceptor {
 
@@ -52,7 +54,7 @@ public class PermissionInterceptor implements HandlerInterceptor {
             try {
                 response.getWriter().write("{\"code\":403,\"message\":\"权限不足\"}");
             } catch (Exception e) {
-                e.printStackTrace();
+                log.error("写入权限不足响应失败", e);
             }
             return false;
         }
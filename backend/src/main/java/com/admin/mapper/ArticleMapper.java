@@ -3,10 +3,28 @@ package com.admin.mapper;
 import com.admin.entity.Article;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 
 /**
  * 文章Mapper
  */
 @Mapper
 public interface ArticleMapper extends BaseMapper<Article> {
+
+    /**
+     * 流式查询所有文章(逐行读取,需在事务内使用)
+     */
+    @Select("SELECT * FROM article ORDER BY id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Article> streamAll();
+
+    /**
+     * 按创建时间倒序流式查询所有文章(逐行读取,需在事务内使用)
+     */
+    @Select("SELECT * FROM article ORDER BY create_time DESC, id DESC")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Article> streamLatest();
 }
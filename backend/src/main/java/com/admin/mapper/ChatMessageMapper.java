@@ -2,11 +2,43 @@ package com.admin.mapper;
 
 import com.admin.entity.ChatMessage;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 聊天消息Mapper
  */
 @Mapper
 public interface ChatMessageMapper extends BaseMapper<ChatMessage> {
+
+    /**
+     * 多行批量插入
+     */
+    @Insert("<script>" +
+            "INSERT INTO chat_message (sender_id, receiver_id, message, send_time) VALUES " +
+            "<foreach collection='list' item='m' separator=','>" +
+            "(#{m.senderId}, #{m.receiverId}, #{m.message}, #{m.sendTime})" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int insertBatch(@Param("list") List<ChatMessage> messages);
+
+    /**
+     * 公共聊天室历史消息,按(send_time, id)游标倒序分页,走 idx_receiver_time 索引
+     */
+    @Select("<script>" +
+            "SELECT id, sender_id, receiver_id, message, send_time FROM chat_message " +
+            "WHERE receiver_id IS NULL" +
+            "<if test='beforeTime != null'> AND (send_time &lt; #{beforeTime} OR (send_time = #{beforeTime} AND id &lt; #{beforeId}))</if>" +
+            " ORDER BY send_time DESC, id DESC LIMIT #{limit}" +
+            "</script>")
+    List<ChatMessage> selectPublicBefore(@Param("beforeTime") LocalDateTime beforeTime,
+                                         @Param("beforeId") Long beforeId,
+                                         @Param("limit") int limit);
 }
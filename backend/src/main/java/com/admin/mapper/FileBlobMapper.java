@@ -0,0 +1,26 @@
+package com.admin.mapper;
+
+import com.admin.entity.FileBlob;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 文件内容Mapper
+ */
+@Mapper
+public interface FileBlobMapper extends BaseMapper<FileBlob> {
+
+    /**
+     * 引用计数加一,内容不存在或大小不符时返回0
+     */
+    @Update("UPDATE file_blob SET ref_count = ref_count + 1 WHERE sha256 = #{sha256} AND file_size = #{fileSize}")
+    int incrementRef(@Param("sha256") String sha256, @Param("fileSize") long fileSize);
+
+    /**
+     * 引用计数减一
+     */
+    @Update("UPDATE file_blob SET ref_count = ref_count - 1 WHERE sha256 = #{sha256} AND ref_count > 0")
+    int decrementRef(@Param("sha256") String sha256);
+}
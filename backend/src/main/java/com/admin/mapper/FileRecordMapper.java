@@ -0,0 +1,12 @@
+package com.admin.mapper;
+
+import com.admin.entity.FileRecord;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 用户文件Mapper
+ */
+@Mapper
+public interface FileRecordMapper extends BaseMapper<FileRecord> {
+}
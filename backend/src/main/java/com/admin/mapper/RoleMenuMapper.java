@@ -2,8 +2,31 @@ package com.admin.mapper;
 
 import com.admin.entity.RoleMenu;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
 
 @Mapper
 public interface RoleMenuMapper extends BaseMapper<RoleMenu> {
+
+    /**
+     * 为角色多行批量插入菜单关联
+     */
+    @Insert("<script>" +
+            "INSERT INTO sys_role_menu (role_id, menu_id) VALUES " +
+            "<foreach collection='menuIds' item='menuId' separator=','>(#{roleId}, #{menuId})</foreach>" +
+            "</script>")
+    int insertBatch(@Param("roleId") Long roleId, @Param("menuIds") Collection<Long> menuIds);
+
+    /**
+     * 删除角色的指定菜单关联
+     */
+    @Delete("<script>" +
+            "DELETE FROM sys_role_menu WHERE role_id = #{roleId} AND menu_id IN " +
+            "<foreach collection='menuIds' item='menuId' open='(' separator=',' close=')'>#{menuId}</foreach>" +
+            "</script>")
+    int deleteByMenuIds(@Param("roleId") Long roleId, @Param("menuIds") Collection<Long> menuIds);
 }
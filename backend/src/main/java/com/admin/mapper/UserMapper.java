@@ -3,7 +3,10 @@ package com.admin.mapper;
 import com.admin.entity.User;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 
 /**
  * 用户Mapper
@@ -18,4 +21,11 @@ public interface UserMapper extends BaseMapper<User> {
             "LEFT JOIN sys_role r ON u.role_id = r.id " +
             "WHERE u.username = #{username}")
     User selectUserWithRole(String username);
+
+    /**
+     * 流式查询所有用户(逐行读取,需在事务内使用)
+     */
+    @Select("SELECT id, username, email, avatar, status, create_time, update_time FROM sys_user ORDER BY id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<User> streamAll();
 }
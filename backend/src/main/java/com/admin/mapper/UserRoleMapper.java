@@ -2,11 +2,34 @@ package com.admin.mapper;
 
 import com.admin.entity.UserRole;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
 
 /**
  * 用户角色关联 Mapper
  */
 @Mapper
 public interface UserRoleMapper extends BaseMapper<UserRole> {
+
+    /**
+     * 为用户多行批量插入角色关联
+     */
+    @Insert("<script>" +
+            "INSERT INTO sys_user_role (user_id, role_id) VALUES " +
+            "<foreach collection='roleIds' item='roleId' separator=','>(#{userId}, #{roleId})</foreach>" +
+            "</script>")
+    int insertBatch(@Param("userId") Long userId, @Param("roleIds") Collection<Long> roleIds);
+
+    /**
+     * 删除用户的指定角色关联
+     */
+    @Delete("<script>" +
+            "DELETE FROM sys_user_role WHERE user_id = #{userId} AND role_id IN " +
+            "<foreach collection='roleIds' item='roleId' open='(' separator=',' close=')'>#{roleId}</foreach>" +
+            "</script>")
+    int deleteByRoleIds(@Param("userId") Long userId, @Param("roleIds") Collection<Long> roleIds);
 }
@@ -0,0 +1,30 @@
+package com.admin.metrics;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * 接口请求指标增加业务码标签
+ * 业务异常统一以HTTP 200返回,仅凭status无法统计错误率;此处把响应体ApiResponse的code作为code标签。
+ * 未返回ApiResponse的请求(拦截器拒绝、文件下载等)标记为NONE。
+ */
+@Component
+public class ApiCodeObservationConvention extends DefaultServerRequestObservationConvention {
+
+    /**
+     * 请求属性: 响应体中的业务码,由 {@link ApiCodeAdvice} 写入
+     */
+    public static final String CODE_ATTRIBUTE = ApiCodeObservationConvention.class.getName() + ".code";
+
+    private static final KeyValue CODE_NONE = KeyValue.of("code", "NONE");
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        Object code = context.getCarrier().getAttribute(CODE_ATTRIBUTE);
+        return super.getLowCardinalityKeyValues(context)
+                .and(code == null ? CODE_NONE : KeyValue.of("code", code.toString()));
+    }
+}
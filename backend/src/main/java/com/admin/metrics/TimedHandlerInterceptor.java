@@ -0,0 +1,77 @@
+package com.admin.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 拦截器计时包装
+ * 记录被包装拦截器preHandle的耗时,按拦截器名称和结果(pass/reject/error)区分,
+ * 用于区分请求耗时花在认证、权限判断还是接口本身。
+ */
+public class TimedHandlerInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String METRIC_NAME = "http.server.interceptor";
+
+    private final HandlerInterceptor delegate;
+
+    private final Timer passTimer;
+
+    private final Timer rejectTimer;
+
+    private final Timer errorTimer;
+
+    public TimedHandlerInterceptor(String name, HandlerInterceptor delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.passTimer = timer(registry, name, "pass");
+        this.rejectTimer = timer(registry, name, "reject");
+        this.errorTimer = timer(registry, name, "error");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        long start = System.nanoTime();
+        Timer timer = errorTimer;
+        try {
+            boolean proceed = delegate.preHandle(request, response, handler);
+            timer = proceed ? passTimer : rejectTimer;
+            return proceed;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) throws Exception {
+        delegate.postHandle(request, response, handler, modelAndView);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) throws Exception {
+        delegate.afterCompletion(request, response, handler, ex);
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) throws Exception {
+        if (delegate instanceof AsyncHandlerInterceptor async) {
+            async.afterConcurrentHandlingStarted(request, response, handler);
+        }
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String outcome) {
+        return Timer.builder(METRIC_NAME)
+                .description("拦截器preHandle耗时")
+                .tag("interceptor", name)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
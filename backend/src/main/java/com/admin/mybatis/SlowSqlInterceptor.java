@@ -0,0 +1,214 @@
+package com.admin.mybatis;
+
+import com.admin.dto.SqlStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 慢SQL拦截器
+ * 统计每条语句(按Mapper方法)的执行耗时直方图;超过阈值的语句以WARN输出SQL、绑定参数和耗时。
+ * 参数渲染只在慢SQL时进行,正常语句只付出一次计时和直方图自增的开销。
+ * 耗时同时记录到mybatis.statement指标(按statement标签区分),随接口指标一起暴露。
+ */
+@Slf4j
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class SlowSqlInterceptor implements Interceptor {
+
+    public static final String METRIC_NAME = "mybatis.statement";
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${mybatis.slow-sql.threshold:500}")
+    private long thresholdMillis;
+
+    @Value("${mybatis.slow-sql.max-param-length:200}")
+    private int maxParamLength;
+
+    private final Map<String, Statement> statements = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Object[] args = invocation.getArgs();
+            MappedStatement ms = (MappedStatement) args[0];
+            Statement statement = statements.computeIfAbsent(ms.getId(), this::newStatement);
+            statement.record(elapsed);
+            if (elapsed >= TimeUnit.MILLISECONDS.toNanos(thresholdMillis)) {
+                statement.slow.increment();
+                logSlow(ms, args, elapsed, result);
+            }
+        }
+    }
+
+    /**
+     * 各语句的耗时统计,按累计耗时降序
+     */
+    public List<SqlStats> snapshot(int limit) {
+        List<SqlStats> result = new ArrayList<>(statements.size());
+        statements.forEach((id, statement) -> result.add(statement.toStats(id)));
+        result.sort(Comparator.comparing(SqlStats::getTotalMillis).reversed());
+        return limit > 0 && result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    /**
+     * 清空统计
+     */
+    public void reset() {
+        statements.clear();
+    }
+
+    private Statement newStatement(String id) {
+        Timer timer = meterRegistry == null ? null : Timer.builder(METRIC_NAME)
+                .description("SQL语句执行耗时")
+                .tag("statement", id)
+                .register(meterRegistry);
+        return new Statement(timer);
+    }
+
+    private void logSlow(MappedStatement ms, Object[] args, long elapsedNanos, Object result) {
+        try {
+            Object parameter = args[1];
+            BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(parameter);
+            log.warn("慢SQL: statement={} elapsed={}ms rows={} sql=[{}] params={}",
+                    ms.getId(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rows(result),
+                    boundSql.getSql().replaceAll("\\s+", " ").trim(),
+                    renderParameters(ms.getConfiguration(), boundSql, parameter));
+        } catch (Exception e) {
+            log.warn("慢SQL: statement={} elapsed={}ms (参数渲染失败: {})",
+                    ms.getId(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), e.getMessage());
+        }
+    }
+
+    /**
+     * 按参数映射顺序取出绑定值,与MyBatis设置PreparedStatement参数的取值规则一致
+     */
+    private List<String> renderParameters(Configuration configuration, BoundSql boundSql, Object parameter) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        List<String> values = new ArrayList<>(mappings.size());
+        MetaObject metaObject = null;
+        for (ParameterMapping mapping : mappings) {
+            if (mapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameter == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+                value = parameter;
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameter);
+                }
+                value = metaObject.getValue(property);
+            }
+            values.add(format(value));
+        }
+        return values;
+    }
+
+    private String format(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        String text = String.valueOf(value);
+        if (text.length() > maxParamLength) {
+            text = text.substring(0, maxParamLength) + "...(" + text.length() + ")";
+        }
+        return value instanceof Number || value instanceof Boolean
+                ? text
+                : "'" + text + "'(" + value.getClass().getSimpleName() + ")";
+    }
+
+    private static Object rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        return result instanceof Number ? result : "-";
+    }
+
+    /**
+     * 单条语句的统计
+     */
+    private static final class Statement {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder slow = new LongAdder();
+        private final Timer timer;
+
+        private Statement(Timer timer) {
+            this.timer = timer;
+        }
+
+        private void record(long elapsedNanos) {
+            histogram.record(elapsedNanos);
+            if (timer != null) {
+                timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private SqlStats toStats(String id) {
+            long count = histogram.count();
+            SqlStats stats = new SqlStats();
+            stats.setStatementId(id);
+            stats.setCount(count);
+            stats.setSlowCount(slow.sum());
+            stats.setTotalMillis(millis(histogram.totalMicros()));
+            stats.setAvgMillis(count == 0 ? 0 : millis(histogram.totalMicros()) / count);
+            stats.setP50Millis(millis(histogram.percentile(0.50)));
+            stats.setP95Millis(millis(histogram.percentile(0.95)));
+            stats.setP99Millis(millis(histogram.percentile(0.99)));
+            stats.setMaxMillis(millis(histogram.maxMicros()));
+            return stats;
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package com.admin.search;
+
+import com.admin.common.exception.BusinessException;
+import com.admin.entity.Article;
+import com.admin.mapper.ArticleMapper;
+import com.admin.util.TransactionUtils;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 文章全文检索倒排索引
+ * 对标题和内容分词(见 {@link CjkTokenizer}),标题中的词按 {@link #TITLE_BOOST} 倍计入词频;
+ * 查询要求包含所有查询词,按BM25排序。文章保存、删除后在事务提交后增量更新。
+ * 索引定期写入磁盘索引段,重启时加载索引段并只补齐上次写入之后变更的文章,无需全量重建。
+ */
+@Slf4j
+@Component
+public class ArticleSearchIndex {
+
+    private static final int MAGIC = 0x41534958;
+
+    private static final int TITLE_BOOST = 3;
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    /**
+     * 全量重建、补齐时每批读取的文章数
+     */
+    private static final int LOAD_BATCH = 500;
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @Value("${article.search.index-file:data/article-search.seg}")
+    private String indexFile;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 词 -> (文章ID -> 加权词频)
+     */
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    /**
+     * 文章ID -> 文章的词频表(用于删除和写入索引段)
+     */
+    private final Map<Long, Doc> docs = new HashMap<>();
+
+    private long totalLength;
+
+    private volatile boolean ready;
+
+    private volatile boolean dirty;
+
+    /**
+     * 启动后加载索引段并补齐变更,索引段不存在或不可用时全量重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            long start = System.currentTimeMillis();
+            if (load()) {
+                catchUp();
+            } else {
+                rebuild();
+            }
+            ready = true;
+            log.info("文章检索索引就绪: {} 篇文章, {} 个词, 耗时 {}ms", docs.size(), postings.size(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("文章检索索引构建失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 文章新增或更新后重新索引(事务提交后从数据库读取最新内容)
+     */
+    public void refresh(Long articleId) {
+        TransactionUtils.afterCommit(() -> {
+            Article article = articleMapper.selectById(articleId);
+            if (article == null) {
+                remove(articleId);
+            } else {
+                index(article);
+            }
+        });
+    }
+
+    /**
+     * 文章删除后移出索引
+     */
+    public void delete(Long articleId) {
+        TransactionUtils.afterCommit(() -> remove(articleId));
+    }
+
+    /**
+     * 检索文章,返回按相关度降序的全部命中
+     */
+    public List<Hit> search(String query) {
+        if (!ready) {
+            throw new BusinessException("文章检索索引正在构建,请稍后重试");
+        }
+        Set<String> terms = new LinkedHashSet<>(CjkTokenizer.tokenizeQuery(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Integer> list = postings.get(term);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Map::size));
+
+            int n = docs.size();
+            double avgLength = n == 0 ? 1 : (double) totalLength / n;
+            double[] idf = new double[lists.size()];
+            for (int i = 0; i < idf.length; i++) {
+                int df = lists.get(i).size();
+                idf[i] = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            }
+
+            List<Hit> hits = new ArrayList<>();
+            // 从最短的倒排表出发,逐个检查其余查询词
+            candidates:
+            for (Map.Entry<Long, Integer> candidate : lists.get(0).entrySet()) {
+                Long docId = candidate.getKey();
+                double norm = K1 * (1 - B + B * docs.get(docId).length / avgLength);
+                double score = 0;
+                for (int i = 0; i < lists.size(); i++) {
+                    Integer tf = i == 0 ? candidate.getValue() : lists.get(i).get(docId);
+                    if (tf == null) {
+                        continue candidates;
+                    }
+                    score += idf[i] * tf * (K1 + 1) / (tf + norm);
+                }
+                hits.add(new Hit(docId, score));
+            }
+            hits.sort(Comparator.comparingDouble(Hit::getScore).reversed()
+                    .thenComparing(Comparator.comparingLong(Hit::getId).reversed()));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 索引有变化时定期写入磁盘
+     */
+    @Scheduled(fixedDelayString = "${article.search.flush-interval:60000}")
+    public void flush() {
+        if (!ready || !dirty) {
+            return;
+        }
+        try {
+            save();
+        } catch (IOException e) {
+            log.warn("文章检索索引写入失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void index(Article article) {
+        long updateTime = toMillis(article.getUpdateTime());
+        Map<String, Integer> terms = new HashMap<>();
+        for (String token : CjkTokenizer.tokenize(article.getTitle())) {
+            terms.merge(token, TITLE_BOOST, Integer::sum);
+        }
+        for (String token : CjkTokenizer.tokenize(article.getContent())) {
+            terms.merge(token, 1, Integer::sum);
+        }
+        lock.writeLock().lock();
+        try {
+            Doc existing = docs.get(article.getId());
+            // 并发的全量构建可能读到较旧的版本,不覆盖更新的索引
+            if (existing != null && existing.updateTime > updateTime) {
+                return;
+            }
+            put(article.getId(), new Doc(updateTime, terms));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long articleId) {
+        lock.writeLock().lock();
+        try {
+            unindex(articleId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Long articleId, Doc doc) {
+        unindex(articleId);
+        docs.put(articleId, doc);
+        totalLength += doc.length;
+        doc.terms.forEach((term, tf) -> postings.computeIfAbsent(term, k -> new HashMap<>()).put(articleId, tf));
+        dirty = true;
+    }
+
+    private void unindex(Long articleId) {
+        Doc doc = docs.remove(articleId);
+        if (doc == null) {
+            return;
+        }
+        totalLength -= doc.length;
+        for (String term : doc.terms.keySet()) {
+            Map<Long, Integer> list = postings.get(term);
+            if (list != null) {
+                list.remove(articleId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        dirty = true;
+    }
+
+    /**
+     * 按ID分批读取全部文章重建索引
+     */
+    private void rebuild() {
+        long lastId = 0;
+        while (true) {
+            List<Article> batch = articleMapper.selectList(new QueryWrapper<Article>()
+                    .gt("id", lastId).orderByAsc("id").last("LIMIT " + LOAD_BATCH));
+            batch.forEach(this::index);
+            if (batch.size() < LOAD_BATCH) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        log.info("文章检索索引全量重建: {} 篇文章", docs.size());
+    }
+
+    /**
+     * 补齐索引段写入之后的变更: 移除已删除的文章,重新索引更新过或缺失的文章
+     */
+    private void catchUp() {
+        Set<Long> ids = articleMapper.selectObjs(new QueryWrapper<Article>().select("id")).stream()
+                .map(id -> ((Number) id).longValue())
+                .collect(Collectors.toSet());
+        long watermark;
+        Set<Long> missing;
+        Set<Long> removed;
+        lock.readLock().lock();
+        try {
+            watermark = docs.values().stream().mapToLong(d -> d.updateTime).max().orElse(0);
+            missing = new HashSet<>(ids);
+            missing.removeAll(docs.keySet());
+            removed = new HashSet<>(docs.keySet());
+            removed.removeAll(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+        removed.forEach(this::remove);
+
+        // update_time精确到秒,从水位线所在的秒开始重新索引
+        LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(watermark), ZoneId.systemDefault())
+                .withNano(0);
+        List<Article> changed = articleMapper.selectList(new QueryWrapper<Article>().ge("update_time", since));
+        changed.forEach(this::index);
+        missing.removeAll(changed.stream().map(Article::getId).collect(Collectors.toSet()));
+        List<Long> missingIds = new ArrayList<>(missing);
+        for (int from = 0; from < missingIds.size(); from += LOAD_BATCH) {
+            articleMapper.selectBatchIds(missingIds.subList(from, Math.min(from + LOAD_BATCH, missingIds.size())))
+                    .forEach(this::index);
+        }
+        log.info("文章检索索引补齐: 删除 {} 篇, 更新 {} 篇, 补充 {} 篇", removed.size(), changed.size(), missingIds.size());
+    }
+
+    /**
+     * 加载磁盘索引段,文件不存在或格式、分词版本不匹配时返回false
+     */
+    private boolean load() {
+        Path path = Paths.get(indexFile);
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path))))) {
+            if (in.readInt() != MAGIC || in.readInt() != CjkTokenizer.VERSION || in.readInt() != TITLE_BOOST) {
+                log.info("文章检索索引段版本不匹配,重新构建");
+                return false;
+            }
+            int docCount = in.readInt();
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < docCount; i++) {
+                    long id = in.readLong();
+                    long updateTime = in.readLong();
+                    int termCount = in.readInt();
+                    Map<String, Integer> terms = new HashMap<>(termCount * 2);
+                    for (int j = 0; j < termCount; j++) {
+                        terms.put(in.readUTF(), in.readInt());
+                    }
+                    put(id, new Doc(updateTime, terms));
+                }
+                dirty = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("加载文章检索索引段: {} 篇文章", docCount);
+            return true;
+        } catch (IOException e) {
+            log.warn("文章检索索引段读取失败,重新构建: {}", e.getMessage());
+            clear();
+            return false;
+        }
+    }
+
+    /**
+     * 写入临时文件后原子替换索引段
+     */
+    private void save() throws IOException {
+        Path path = Paths.get(indexFile).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        Path tmp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            int docCount;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+                lock.readLock().lock();
+                try {
+                    dirty = false;
+                    docCount = docs.size();
+                    out.writeInt(MAGIC);
+                    out.writeInt(CjkTokenizer.VERSION);
+                    out.writeInt(TITLE_BOOST);
+                    out.writeInt(docCount);
+                    for (Map.Entry<Long, Doc> entry : docs.entrySet()) {
+                        Doc doc = entry.getValue();
+                        out.writeLong(entry.getKey());
+                        out.writeLong(doc.updateTime);
+                        out.writeInt(doc.terms.size());
+                        for (Map.Entry<String, Integer> term : doc.terms.entrySet()) {
+                            out.writeUTF(term.getKey());
+                            out.writeInt(term.getValue());
+                        }
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("文章检索索引段已写入: {} 篇文章", docCount);
+        } catch (IOException e) {
+            dirty = true;
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    private void clear() {
+        lock.writeLock().lock();
+        try {
+            docs.clear();
+            postings.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 单篇文章的索引信息
+     */
+    private static final class Doc {
+        private final long updateTime;
+        private final Map<String, Integer> terms;
+        private final int length;
+
+        private Doc(long updateTime, Map<String, Integer> terms) {
+            this.updateTime = updateTime;
+            this.terms = terms;
+            this.length = terms.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+
+    /**
+     * 命中的文章及其得分
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Hit {
+        private final long id;
+        private final double score;
+    }
+}
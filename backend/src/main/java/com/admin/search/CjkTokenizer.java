@@ -0,0 +1,99 @@
+package com.admin.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 全文检索分词器
+ * 文本先做NFKC规范化(全角转半角)并转小写;连续的字母数字作为一个词,
+ * 连续的中日韩文字切分为相邻两字的二元组,其余字符作为分隔符。
+ * 建索引时每个汉字还单独成词,单字查询(如姓氏)也能命中;查询时两字以上的片段只用二元组匹配,
+ * 单字片段用单字匹配。二元组无需词典即可匹配任意中文片段,代价是索引体积略大。
+ */
+public final class CjkTokenizer {
+
+    /**
+     * 分词规则版本,规则变化时磁盘上的索引段需要重建
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * 超长的字母数字串(如链接、Base64图片)不入索引
+     */
+    private static final int MAX_WORD_LENGTH = 40;
+
+    private CjkTokenizer() {
+    }
+
+    /**
+     * 建索引用的分词: 中日韩文字输出单字和二元组
+     */
+    public static List<String> tokenize(String text) {
+        return tokenize(text, true);
+    }
+
+    /**
+     * 查询用的分词: 两字以上的中日韩片段只输出二元组,单字片段输出单字
+     */
+    public static List<String> tokenizeQuery(String text) {
+        return tokenize(text, false);
+    }
+
+    private static List<String> tokenize(String text, boolean unigrams) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjk = new StringBuilder();
+        int i = 0;
+        while (i < normalized.length()) {
+            int cp = normalized.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isCjk(cp)) {
+                flushWord(word, tokens);
+                cjk.appendCodePoint(cp);
+            } else if (Character.isLetterOrDigit(cp)) {
+                flushCjk(cjk, tokens, unigrams);
+                word.appendCodePoint(cp);
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjk, tokens, unigrams);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjk, tokens, unigrams);
+        return tokens;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (word.length() > 0 && word.length() <= MAX_WORD_LENGTH) {
+            tokens.add(word.toString());
+        }
+        word.setLength(0);
+    }
+
+    private static void flushCjk(StringBuilder cjk, List<String> tokens, boolean unigrams) {
+        int[] cps = cjk.codePoints().toArray();
+        if (unigrams || cps.length == 1) {
+            for (int i = 0; i < cps.length; i++) {
+                tokens.add(new String(cps, i, 1));
+            }
+        }
+        for (int i = 0; i + 1 < cps.length; i++) {
+            tokens.add(new String(cps, i, 2));
+        }
+        cjk.setLength(0);
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
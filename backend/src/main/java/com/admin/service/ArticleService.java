@@ -1,37 +1,122 @@
 package com.admin.service;
 
+import com.admin.annotation.ReplicaRead;
+import com.admin.cache.RowCountCache;
+import com.admin.dto.ApiResponse;
+import com.admin.dto.ArticleSearchResult;
+import com.admin.dto.CursorPage;
 import com.admin.entity.Article;
 import com.admin.mapper.ArticleMapper;
+import com.admin.search.ArticleSearchIndex;
+import com.admin.search.CjkTokenizer;
+import com.admin.util.SeekCursor;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 文章服务
  */
 @Service
 public class ArticleService extends ServiceImpl<ArticleMapper, Article> {
+
+    /**
+     * 摘要长度及命中位置之前保留的字符数
+     */
+    private static final int SNIPPET_LENGTH = 120;
+
+    private static final int SNIPPET_LEAD = 30;
+
+    private static final String TABLE = "article";
+
+    /**
+     * 流式输出时每写入多少行刷新一次输出流
+     */
+    private static final int STREAM_FLUSH_ROWS = 200;
+
+    @Autowired
+    private ArticleSearchIndex articleSearchIndex;
+
+    @Autowired
+    private RowCountCache rowCountCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${paging.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${article.search.max-page-size:50}")
+    private int maxSearchPageSize;
     
     /**
      * 分页查询文章列表
      */
+    @ReplicaRead
     public Page<Article> getArticlePage(int page, int size) {
+        // 列表接口只返回当前页数据,不需要COUNT(*)
         Page<Article> pageParam = new Page<>(page, size);
+        pageParam.setSearchCount(false);
         QueryWrapper<Article> wrapper = new QueryWrapper<>();
         wrapper.orderByDesc("create_time");
         return page(pageParam, wrapper);
     }
-    
+
     /**
-     * 查询所有文章
+     * 游标分页查询文章列表(按创建时间倒序),不执行COUNT(*)
      */
-    public List<Article> getAllArticles() {
+    @ReplicaRead
+    public CursorPage<Article> getArticleCursorPage(String cursor, int size, boolean withTotal) {
+        size = Math.max(1, Math.min(size, maxPageSize));
         QueryWrapper<Article> wrapper = new QueryWrapper<>();
-        wrapper.orderByDesc("create_time");
-        return list(wrapper);
+        SeekCursor.seek(wrapper, SeekCursor.decode(cursor), true, size);
+
+        CursorPage<Article> page = SeekCursor.toPage(list(wrapper), size, Article::getCreateTime, Article::getId);
+        if (withTotal) {
+            page.setTotal(rowCountCache.get(TABLE, null, this::count));
+        }
+        return page;
+    }
+
+    /**
+     * 以 ApiResponse 格式流式输出全部文章(按创建时间倒序)
+     * 通过MyBatis游标逐行读取并逐条序列化,内存占用与文章数量无关;中途出错时直接抛出,不输出结尾,由调用方中断响应
+     */
+    @Transactional(readOnly = true)
+    public void writeAllArticles(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+             Cursor<Article> cursor = baseMapper.streamLatest()) {
+            ApiResponse<Void> envelope = ApiResponse.success();
+            generator.writeStartObject();
+            generator.writeNumberField("code", envelope.getCode());
+            generator.writeStringField("message", envelope.getMessage());
+            generator.writeArrayFieldStart("data");
+            int rows = 0;
+            for (Article article : cursor) {
+                generator.writeObject(article);
+                if (++rows % STREAM_FLUSH_ROWS == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
     }
     
     /**
@@ -45,13 +130,79 @@ public class ArticleService extends ServiceImpl<ArticleMapper, Article> {
      * 保存文章（新增或更新）
      */
     public boolean saveArticle(Article article) {
-        return saveOrUpdate(article);
+        boolean success = saveOrUpdate(article);
+        if (success) {
+            articleSearchIndex.refresh(article.getId());
+            rowCountCache.evict(TABLE);
+        }
+        return success;
     }
     
     /**
      * 删除文章
      */
     public boolean deleteArticle(Long id) {
-        return removeById(id);
+        boolean success = removeById(id);
+        articleSearchIndex.delete(id);
+        rowCountCache.evict(TABLE);
+        return success;
+    }
+
+    /**
+     * 全文检索文章标题和内容,按相关度排序分页
+     */
+    public ArticleSearchResult searchArticles(String keyword, int page, int size) {
+        size = Math.max(1, Math.min(size, maxSearchPageSize));
+        List<ArticleSearchIndex.Hit> hits = articleSearchIndex.search(keyword);
+        int from = (Math.max(page, 1) - 1) * size;
+        List<ArticleSearchIndex.Hit> pageHits = from >= hits.size()
+                ? List.of() : hits.subList(from, Math.min(from + size, hits.size()));
+
+        Map<Long, Article> articles = pageHits.isEmpty() ? Map.of()
+                : listByIds(pageHits.stream().map(ArticleSearchIndex.Hit::getId).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(Article::getId, Function.identity()));
+        List<String> tokens = CjkTokenizer.tokenizeQuery(keyword);
+        List<ArticleSearchResult.Hit> records = new ArrayList<>(pageHits.size());
+        for (ArticleSearchIndex.Hit hit : pageHits) {
+            Article article = articles.get(hit.getId());
+            if (article == null) {
+                continue;
+            }
+            ArticleSearchResult.Hit record = new ArticleSearchResult.Hit();
+            record.setId(article.getId());
+            record.setTitle(article.getTitle());
+            record.setAuthorId(article.getAuthorId());
+            record.setStatus(article.getStatus());
+            record.setCreateTime(article.getCreateTime());
+            record.setScore(hit.getScore());
+            record.setSnippet(snippet(article.getContent(), tokens));
+            records.add(record);
+        }
+
+        ArticleSearchResult result = new ArticleSearchResult();
+        result.setTotal(hits.size());
+        result.setRecords(records);
+        return result;
+    }
+
+    /**
+     * 截取内容中首个命中位置附近的片段
+     */
+    private static String snippet(String content, List<String> tokens) {
+        if (content == null || content.isEmpty()) {
+            return "";
+        }
+        String lower = content.toLowerCase(Locale.ROOT);
+        int hit = -1;
+        for (String token : tokens) {
+            int pos = lower.indexOf(token);
+            if (pos >= 0 && (hit < 0 || pos < hit)) {
+                hit = pos;
+            }
+        }
+        int start = Math.max(0, hit - SNIPPET_LEAD);
+        int end = Math.min(content.length(), start + SNIPPET_LENGTH);
+        String text = content.substring(start, end).replaceAll("\\s+", " ").trim();
+        return (start > 0 ? "..." : "") + text + (end < content.length() ? "..." : "");
     }
 }
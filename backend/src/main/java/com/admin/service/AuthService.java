@@ -4,10 +4,7 @@ import com.admin.dto.LoginRequest;
 import com.admin.dto.LoginResponse;
 import com.admin.entity.Role;
 import com.admin.entity.User;
-import com.admin.entity.UserRole;
-import com.admin.mapper.RoleMapper;
 import com.admin.mapper.UserMapper;
-import com.admin.mapper.UserRoleMapper;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import com.admin.util.JwtUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
@@ -29,10 +26,7 @@ public class AuthService {
     private UserMapper userMapper;
 
     @Autowired
-    private RoleMapper roleMapper;
-
-    @Autowired
-    private UserRoleMapper userRoleMapper;
+    private UserRoleLoader userRoleLoader;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -110,20 +104,6 @@ public class AuthService {
      * 获取用户的所有角色
      */
     private List<Role> getUserRoles(Long userId) {
-        // 查询用户角色关联
-        QueryWrapper<UserRole> wrapper = new QueryWrapper<>();
-        wrapper.eq("user_id", userId);
-        List<UserRole> userRoles = userRoleMapper.selectList(wrapper);
-
-        if (userRoles.isEmpty()) {
-            return List.of();
-        }
-
-        // 查询角色详情
-        List<Long> roleIds = userRoles.stream()
-                .map(UserRole::getRoleId)
-                .collect(Collectors.toList());
-
-        return roleMapper.selectBatchIds(roleIds);
+        return userRoleLoader.loadRoles(userId);
     }
 }
@@ -0,0 +1,81 @@
+package com.admin.service;
+
+import com.admin.chat.ChatHistoryCache;
+import com.admin.common.exception.BusinessException;
+import com.admin.dto.ChatHistoryPage;
+import com.admin.entity.ChatMessage;
+import com.admin.mapper.ChatMessageMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 聊天服务
+ */
+@Service
+public class ChatService {
+
+    @Autowired
+    private ChatMessageMapper chatMessageMapper;
+
+    @Autowired
+    private ChatHistoryCache chatHistoryCache;
+
+    @Value("${chat.history.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * 查询公共聊天室历史消息,游标为空时返回最新一页
+     */
+    public ChatHistoryPage getHistory(LocalDateTime beforeTime, Long beforeId, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new BusinessException("每页数量需在1到" + maxPageSize + "之间");
+        }
+        if (beforeTime == null) {
+            beforeId = null;
+        } else if (beforeId == null) {
+            beforeId = Long.MAX_VALUE;
+        }
+
+        // 多取一条用于判断是否还有更早的消息
+        int limit = size + 1;
+        List<ChatMessage> rows = chatHistoryCache.before(beforeTime, beforeId, limit);
+        if (rows == null) {
+            if (beforeTime == null) {
+                // 最新一页未命中时按尾部缓存大小查询并初始化缓存
+                long gen = chatHistoryCache.generation();
+                List<ChatMessage> latest = chatMessageMapper.selectPublicBefore(null, null,
+                        Math.max(limit, chatHistoryCache.getTailSize()));
+                chatHistoryCache.load(latest, gen);
+                rows = latest.size() > limit ? latest.subList(0, limit) : latest;
+            } else {
+                rows = chatMessageMapper.selectPublicBefore(beforeTime, beforeId, limit);
+            }
+        }
+        return toPage(rows, size);
+    }
+
+    /**
+     * 倒序查询结果转为正序的一页
+     */
+    private ChatHistoryPage toPage(List<ChatMessage> rows, int size) {
+        boolean hasMore = rows.size() > size;
+        List<ChatMessage> messages = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+        Collections.reverse(messages);
+
+        ChatHistoryPage page = new ChatHistoryPage();
+        page.setMessages(messages);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            ChatMessage oldest = messages.get(0);
+            page.setNextBeforeTime(oldest.getSendTime());
+            page.setNextBeforeId(oldest.getId());
+        }
+        return page;
+    }
+}
@@ -0,0 +1,81 @@
+package com.admin.service;
+
+import com.admin.entity.Article;
+import com.admin.entity.User;
+import com.admin.excel.StreamingExcelWriter;
+import com.admin.mapper.ArticleMapper;
+import com.admin.mapper.UserMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Excel导出服务
+ * 数据通过MyBatis游标逐行读取并写入SXSSF工作簿,导出行数不影响堆内存占用
+ */
+@Service
+public class ExcelExportService {
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @Value("${excel.export.row-window:500}")
+    private int rowWindow;
+
+    @Value("${excel.export.compress-temp-files:true}")
+    private boolean compressTempFiles;
+
+    /**
+     * 导出用户列表
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(OutputStream out) throws IOException {
+        try (Cursor<User> cursor = userMapper.streamAll()) {
+            write("用户列表", List.of("ID", "用户名", "邮箱", "状态", "创建时间"), cursor,
+                    u -> Arrays.asList(u.getId(), u.getUsername(), u.getEmail(), u.getStatus(), u.getCreateTime()),
+                    out);
+        }
+    }
+
+    /**
+     * 导出文章列表
+     */
+    @Transactional(readOnly = true)
+    public void exportArticles(OutputStream out) throws IOException {
+        try (Cursor<Article> cursor = articleMapper.streamAll()) {
+            write("文章列表", List.of("ID", "标题", "内容", "作者ID", "状态", "创建时间", "更新时间"), cursor,
+                    a -> Arrays.asList(a.getId(), a.getTitle(), a.getContent(), a.getAuthorId(), a.getStatus(),
+                            a.getCreateTime(), a.getUpdateTime()),
+                    out);
+        }
+    }
+
+    /**
+     * 导出请求中给定的表头和数据
+     */
+    public void export(List<String> headers, List<List<Object>> data, OutputStream out) throws IOException {
+        write("导出数据", headers, data, row -> row, out);
+    }
+
+    private <T> void write(String sheetName, List<String> headers, Iterable<T> rows,
+                           Function<T, List<?>> mapper, OutputStream out) throws IOException {
+        try (StreamingExcelWriter writer = new StreamingExcelWriter(sheetName, rowWindow, compressTempFiles)) {
+            writer.writeRow(headers);
+            for (T row : rows) {
+                writer.writeRow(mapper.apply(row));
+            }
+            writer.finish(out);
+        }
+    }
+}
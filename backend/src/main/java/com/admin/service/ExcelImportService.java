@@ -0,0 +1,46 @@
+package com.admin.service;
+
+import com.admin.excel.RowBatchConsumer;
+import com.admin.excel.StreamingExcelReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Excel导入服务
+ * 基于SAX流式解析,数据行按批次推送给消费者,不在内存中保留整个工作表
+ */
+@Service
+public class ExcelImportService {
+
+    @Value("${excel.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${excel.import.shared-strings-on-disk:true}")
+    private boolean sharedStringsOnDisk;
+
+    /**
+     * 解析Excel文件
+     */
+    public void read(File file, RowBatchConsumer consumer) throws IOException {
+        new StreamingExcelReader(batchSize, sharedStringsOnDisk).read(file, consumer);
+    }
+
+    /**
+     * 解析上传的Excel文件(先落盘为临时文件,解析完成后删除)
+     */
+    public void read(MultipartFile file, RowBatchConsumer consumer) throws IOException {
+        Path temp = Files.createTempFile("excel-import-", ".xlsx");
+        try {
+            file.transferTo(temp);
+            read(temp.toFile(), consumer);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
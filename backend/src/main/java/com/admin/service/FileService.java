@@ -0,0 +1,188 @@
+package com.admin.service;
+
+import com.admin.common.enums.ErrorCode;
+import com.admin.common.exception.BusinessException;
+import com.admin.dto.CursorPage;
+import com.admin.entity.FileBlob;
+import com.admin.entity.FileRecord;
+import com.admin.mapper.FileBlobMapper;
+import com.admin.mapper.FileRecordMapper;
+import com.admin.upload.BlobStore;
+import com.admin.util.SeekCursor;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * 文件服务
+ * 用户文件(file_record)引用按内容去重的存储(file_blob + {@link BlobStore}),
+ * 已有的内容只增加引用计数,最后一个引用删除时才删除磁盘上的内容。
+ * 同一内容的引用增减、落盘和删除在按哈希分段的锁内串行执行,各条SQL自动提交;
+ * 锁只在本进程内有效,多实例部署时需共享存储目录并改用分布式锁
+ */
+@Slf4j
+@Service
+public class FileService {
+
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private FileRecordMapper fileRecordMapper;
+
+    @Autowired
+    private FileBlobMapper fileBlobMapper;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Value("${paging.max-size:100}")
+    private int maxPageSize;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public FileService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * 秒传: 用户自己已有相同内容的文件时直接创建新的文件记录,否则返回null,客户端需上传内容。
+     * 只凭SHA-256和大小无法证明持有文件,不能把其他用户的文件秒传给调用方;
+     * 其他用户已上传的内容仍由 {@link #store} 在合并后去重,只是不省上传流量
+     */
+    public FileRecord addReference(String sha256, long fileSize, String fileName, Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        synchronized (lock(sha256)) {
+            if (!fileRecordMapper.exists(new QueryWrapper<FileRecord>()
+                    .eq("sha256", sha256).eq("file_size", fileSize).eq("user_id", userId))) {
+                return null;
+            }
+            if (fileBlobMapper.incrementRef(sha256, fileSize) == 0) {
+                return null;
+            }
+            if (!blobStore.exists(sha256)) {
+                log.warn("文件内容丢失,按未上传处理: sha256={}", sha256);
+                fileBlobMapper.decrementRef(sha256);
+                return null;
+            }
+            return insertRecord(sha256, fileSize, fileName, userId);
+        }
+    }
+
+    /**
+     * 保存上传完成的文件;内容已存在时丢弃临时文件,只增加引用计数
+     *
+     * @param tempFile {@link BlobStore#createTempFile} 创建的临时文件
+     */
+    public FileRecord store(Path tempFile, String sha256, long fileSize, String fileName, Long userId) throws IOException {
+        synchronized (lock(sha256)) {
+            if (fileBlobMapper.incrementRef(sha256, fileSize) > 0 && blobStore.exists(sha256)) {
+                Files.deleteIfExists(tempFile);
+            } else {
+                blobStore.put(tempFile, sha256);
+                if (fileBlobMapper.selectById(sha256) == null) {
+                    FileBlob blob = new FileBlob();
+                    blob.setSha256(sha256);
+                    blob.setFileSize(fileSize);
+                    blob.setRefCount(1);
+                    blob.setCreateTime(LocalDateTime.now());
+                    fileBlobMapper.insert(blob);
+                }
+            }
+            return insertRecord(sha256, fileSize, fileName, userId);
+        }
+    }
+
+    /**
+     * 查询文件
+     */
+    public FileRecord getFile(Long id, Long userId) {
+        FileRecord record = fileRecordMapper.selectById(id);
+        if (record == null) {
+            throw new BusinessException(404, "文件不存在");
+        }
+        if (userId != null && !userId.equals(record.getUserId())) {
+            throw new BusinessException(ErrorCode.FORBIDDEN);
+        }
+        return record;
+    }
+
+    /**
+     * 文件内容在磁盘上的路径
+     */
+    public Path getContentPath(FileRecord record) {
+        Path path = blobStore.path(record.getSha256());
+        if (!Files.exists(path)) {
+            log.warn("文件内容丢失: id={} sha256={}", record.getId(), record.getSha256());
+            throw new BusinessException(404, "文件内容不存在");
+        }
+        return path;
+    }
+
+    /**
+     * 游标分页查询用户的文件(按创建时间倒序)
+     */
+    public CursorPage<FileRecord> listFiles(Long userId, String cursor, int size) {
+        size = Math.max(1, Math.min(size, maxPageSize));
+        QueryWrapper<FileRecord> wrapper = new QueryWrapper<>();
+        if (userId != null) {
+            wrapper.eq("user_id", userId);
+        }
+        SeekCursor.seek(wrapper, SeekCursor.decode(cursor), true, size);
+        return SeekCursor.toPage(fileRecordMapper.selectList(wrapper), size,
+                FileRecord::getCreateTime, FileRecord::getId);
+    }
+
+    /**
+     * 删除文件,内容不再被引用时一并删除
+     */
+    public void deleteFile(Long id, Long userId) {
+        FileRecord record = getFile(id, userId);
+        String sha256 = record.getSha256();
+        synchronized (lock(sha256)) {
+            if (fileRecordMapper.deleteById(id) == 0) {
+                return;
+            }
+            fileBlobMapper.decrementRef(sha256);
+            FileBlob blob = fileBlobMapper.selectById(sha256);
+            if (blob != null && blob.getRefCount() <= 0) {
+                fileBlobMapper.deleteById(sha256);
+                try {
+                    blobStore.delete(sha256);
+                } catch (IOException e) {
+                    log.warn("删除文件内容失败: sha256={}", sha256, e);
+                }
+            }
+        }
+    }
+
+    private FileRecord insertRecord(String sha256, long fileSize, String fileName, Long userId) {
+        FileRecord record = new FileRecord();
+        record.setUserId(userId);
+        record.setFileName(fileName);
+        record.setSha256(sha256);
+        record.setFileSize(fileSize);
+        record.setCreateTime(LocalDateTime.now());
+        try {
+            fileRecordMapper.insert(record);
+        } catch (RuntimeException e) {
+            fileBlobMapper.decrementRef(sha256);
+            throw e;
+        }
+        return record;
+    }
+
+    private Object lock(String sha256) {
+        return locks[Math.floorMod(sha256.hashCode(), LOCK_STRIPES)];
+    }
+}
@@ -0,0 +1,192 @@
+package com.admin.service;
+
+import com.admin.common.enums.ErrorCode;
+import com.admin.common.exception.BusinessException;
+import com.admin.dto.ImportJobStatus;
+import com.admin.excel.ImportJob;
+import com.admin.excel.RowBatchConsumer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Excel异步导入任务服务
+ * 上传后立即返回任务ID,解析在有界线程池中执行,进度通过WebSocket推送到 /topic/jobs/{id}
+ */
+@Slf4j
+@Service
+public class ImportJobService {
+
+    @Autowired
+    private ExcelImportService excelImportService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("importJobExecutor")
+    private ThreadPoolTaskExecutor importJobExecutor;
+
+    @Value("${excel.import.job.progress-interval:500}")
+    private long progressInterval;
+
+    @Value("${excel.import.job.retention:3600000}")
+    private long retention;
+
+    @Value("${paging.max-size:100}")
+    private int maxPageSize;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 提交导入任务
+     */
+    public ImportJobStatus submit(MultipartFile file, Long userId) throws IOException {
+        // 上传的临时文件在请求结束后会被删除,先转存
+        Path source = Files.createTempFile("import-source-", ".xlsx");
+        file.transferTo(source);
+
+        ImportJob job;
+        try {
+            job = new ImportJob(UUID.randomUUID().toString(), userId, file.getOriginalFilename(), source, objectMapper);
+        } catch (IOException e) {
+            Files.deleteIfExists(source);
+            throw e;
+        }
+        jobs.put(job.getId(), job);
+        try {
+            importJobExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            job.cleanup();
+            throw new BusinessException("导入任务过多,请稍后重试");
+        }
+        return ImportJobStatus.of(job);
+    }
+
+    /**
+     * 查询任务状态
+     */
+    public ImportJobStatus getStatus(String jobId, Long userId) {
+        return ImportJobStatus.of(getJob(jobId, userId));
+    }
+
+    /**
+     * 分页查询任务解析结果
+     */
+    public List<List<String>> getRows(String jobId, Long userId, int page, int size) throws IOException {
+        size = Math.max(1, Math.min(size, maxPageSize));
+        return getJob(jobId, userId).readRows(page, size);
+    }
+
+    /**
+     * 取消任务
+     */
+    public void cancel(String jobId, Long userId) {
+        getJob(jobId, userId).cancel();
+    }
+
+    /**
+     * 定时清理已结束且超过保留时间的任务
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpiredJobs() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> {
+            if (job.isFinished() && now - job.getEndTime() > retention) {
+                job.cleanup();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> {
+            job.cancel();
+            job.cleanup();
+        });
+        jobs.clear();
+    }
+
+    private ImportJob getJob(String jobId, Long userId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new BusinessException(404, "导入任务不存在");
+        }
+        if (userId != null && !userId.equals(job.getUserId())) {
+            throw new BusinessException(ErrorCode.FORBIDDEN);
+        }
+        return job;
+    }
+
+    private void run(ImportJob job) {
+        try {
+            if (!job.start()) {
+                publish(job);
+                return;
+            }
+            publish(job);
+            long[] lastPublish = {System.currentTimeMillis()};
+            excelImportService.read(job.getSourceFile().toFile(), new RowBatchConsumer() {
+                @Override
+                public void onHeader(List<String> headers) {
+                    job.setHeaders(headers);
+                }
+
+                @Override
+                public void accept(List<List<String>> rows) {
+                    try {
+                        job.append(rows);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    long now = System.currentTimeMillis();
+                    if (now - lastPublish[0] >= progressInterval) {
+                        lastPublish[0] = now;
+                        publish(job);
+                    }
+                }
+            });
+            job.finish(ImportJob.Status.COMPLETED, null);
+        } catch (ImportJob.ImportCancelledException e) {
+            job.finish(ImportJob.Status.CANCELLED, null);
+        } catch (Exception e) {
+            log.error("导入任务失败: jobId={}", job.getId(), e);
+            job.finish(ImportJob.Status.FAILED, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(job.getSourceFile());
+            } catch (IOException ignored) {
+                // 源文件删除失败时由定时清理兜底
+            }
+        }
+        publish(job);
+    }
+
+    private void publish(ImportJob job) {
+        messagingTemplate.convertAndSend("/topic/jobs/" + job.getId(), ImportJobStatus.of(job));
+    }
+}
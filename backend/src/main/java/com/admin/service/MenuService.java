@@ -1,11 +1,14 @@
 package com.admin.service;
 
+import com.admin.cache.PermissionCache;
+import com.admin.cache.PermissionIndex;
+import com.admin.cache.PermissionSnapshot;
 import com.admin.entity.Menu;
 import com.admin.entity.UserRole;
-import com.admin.entity.RoleMenu;
 import com.admin.mapper.MenuMapper;
-import com.admin.mapper.RoleMenuMapper;
 import com.admin.mapper.UserRoleMapper;
+import com.admin.util.MenuTreeBuilder;
+import com.admin.util.TransactionUtils;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +16,8 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -25,20 +30,43 @@ public class MenuService extends ServiceImpl<MenuMapper, Menu> {
     private UserRoleMapper userRoleMapper;
 
     @Autowired
-    private RoleMenuMapper roleMenuMapper;
+    private PermissionIndex permissionIndex;
+
+    @Autowired
+    private PermissionCache permissionCache;
+
+    /**
+     * 完整菜单树缓存(不可变),菜单变更时失效
+     */
+    private volatile List<Menu> menuTree;
+
+    private final AtomicLong menuTreeVersion = new AtomicLong();
 
     /**
      * 查询菜单树
+     * 结果常驻缓存直到菜单变更,不走只读副本,避免把副本上尚未同步的旧数据回填进缓存
      */
     public List<Menu> getMenuTree() {
-        // 查询所有菜单(只查询菜单类型,不包括按钮)
+        List<Menu> tree = menuTree;
+        if (tree != null) {
+            return tree;
+        }
+
+        long version = menuTreeVersion.get();
+        // 查询所有菜单(包括按钮)
         QueryWrapper<Menu> wrapper = new QueryWrapper<>();
-        // wrapper.eq("type", "menu"); // Allow all types including buttons
         wrapper.orderByAsc("sort_order");
         List<Menu> allMenus = list(wrapper);
 
         // 构建树形结构
-        return buildMenuTree(allMenus);
+        tree = MenuTreeBuilder.build(allMenus);
+        synchronized (this) {
+            // 构建期间菜单发生变更则不回填缓存
+            if (version == menuTreeVersion.get()) {
+                menuTree = tree;
+            }
+        }
+        return tree;
     }
 
     /**
@@ -56,128 +84,87 @@ public class MenuService extends ServiceImpl<MenuMapper, Menu> {
         if (menu.getType() == null || menu.getType().isEmpty()) {
             menu.setType("menu");
         }
-        return save(menu);
+        boolean success = save(menu);
+        permissionIndex.refreshMenu(menu.getId());
+        evictMenuTree();
+        return success;
     }
 
     /**
      * 更新菜单
      */
     public boolean updateMenu(Menu menu) {
-        return updateById(menu);
+        boolean success = updateById(menu);
+        // 权限标识可能变化,刷新权限索引
+        permissionIndex.refreshMenu(menu.getId());
+        evictMenuTree();
+        return success;
     }
 
     /**
      * 删除菜单
      */
     public boolean deleteMenu(Long id) {
-        return removeById(id);
+        boolean success = removeById(id);
+        permissionIndex.removeMenu(id);
+        evictMenuTree();
+        return success;
     }
 
     /**
      * 根据用户ID获取菜单树（基于多角色权限合并）
+     * 由缓存的完整菜单树按用户可访问的菜单ID裁剪得到,只保留菜单类型(不包括按钮)
      */
     public List<Menu> getMenusByUserId(Long userId) {
         // 1. 获取用户的所有角色ID
-        QueryWrapper<UserRole> userRoleWrapper = new QueryWrapper<>();
-        userRoleWrapper.eq("user_id", userId);
-        List<UserRole> userRoles = userRoleMapper.selectList(userRoleWrapper);
-
-        if (userRoles.isEmpty()) {
+        PermissionSnapshot snapshot = permissionCache.get(userId, this::loadPermissionSnapshot);
+        if (snapshot.getRoleIds().isEmpty()) {
             return new ArrayList<>();
         }
 
-        List<Long> roleIds = userRoles.stream()
-                .map(UserRole::getRoleId)
-                .collect(Collectors.toList());
-
-        // 2. 获取所有角色的菜单ID列表(合并去重)
-        QueryWrapper<RoleMenu> roleMenuWrapper = new QueryWrapper<>();
-        roleMenuWrapper.in("role_id", roleIds);
-        List<RoleMenu> roleMenus = roleMenuMapper.selectList(roleMenuWrapper);
-
-        if (roleMenus.isEmpty()) {
+        // 2. 获取所有角色的菜单ID集合(合并去重)
+        Set<Long> menuIds = permissionIndex.menuIdsOf(snapshot.getRoleIds());
+        if (menuIds.isEmpty()) {
             return new ArrayList<>();
         }
 
-        // 去重菜单ID
-        List<Long> menuIds = roleMenus.stream()
-                .map(RoleMenu::getMenuId)
-                .distinct()
-                .collect(Collectors.toList());
-
-        // 3. 查询菜单详情(只查询菜单类型,不包括按钮)
-        QueryWrapper<Menu> menuWrapper = new QueryWrapper<>();
-        menuWrapper.in("id", menuIds);
-        menuWrapper.eq("type", "menu");
-        menuWrapper.orderByAsc("sort_order");
-        List<Menu> authorizedMenus = list(menuWrapper);
-
-        // 4. 构建树形结构
-        return buildMenuTree(authorizedMenus);
+        // 3. 裁剪完整菜单树
+        return MenuTreeBuilder.prune(getMenuTree(),
+                menu -> "menu".equals(menu.getType()) && menuIds.contains(menu.getId()));
     }
 
     /**
      * 根据用户ID获取所有权限(包括菜单和按钮)
      */
     public List<String> getPermissionsByUserId(Long userId) {
-        // 1. 获取用户的所有角色ID
+        PermissionSnapshot snapshot = permissionCache.get(userId, this::loadPermissionSnapshot);
+        return permissionIndex.permissionsOf(snapshot.effectiveBits(permissionIndex));
+    }
+
+    /**
+     * 从数据库加载用户权限快照(用户的角色ID),角色对应的权限由权限索引提供
+     */
+    public PermissionSnapshot loadPermissionSnapshot(Long userId) {
         QueryWrapper<UserRole> userRoleWrapper = new QueryWrapper<>();
         userRoleWrapper.eq("user_id", userId);
         List<UserRole> userRoles = userRoleMapper.selectList(userRoleWrapper);
 
         if (userRoles.isEmpty()) {
-            return new ArrayList<>();
+            return PermissionSnapshot.EMPTY;
         }
 
-        List<Long> roleIds = userRoles.stream()
+        return new PermissionSnapshot(userRoles.stream()
                 .map(UserRole::getRoleId)
-                .collect(Collectors.toList());
-
-        // 2. 获取所有角色的菜单ID列表
-        QueryWrapper<RoleMenu> roleMenuWrapper = new QueryWrapper<>();
-        roleMenuWrapper.in("role_id", roleIds);
-        List<RoleMenu> roleMenus = roleMenuMapper.selectList(roleMenuWrapper);
-
-        if (roleMenus.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        List<Long> menuIds = roleMenus.stream()
-                .map(RoleMenu::getMenuId)
-                .distinct()
-                .collect(Collectors.toList());
-
-        // 3. 查询所有菜单和按钮,提取权限标识
-        QueryWrapper<Menu> menuWrapper = new QueryWrapper<>();
-        menuWrapper.in("id", menuIds);
-        menuWrapper.isNotNull("permission");
-        List<Menu> menus = list(menuWrapper);
-
-        return menus.stream()
-                .map(Menu::getPermission)
-                .filter(p -> p != null && !p.isEmpty())
-                .distinct()
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     /**
-     * 构建菜单树
+     * 失效菜单树缓存
      */
-    private List<Menu> buildMenuTree(List<Menu> menus) {
-        List<Menu> rootMenus = new ArrayList<>();
-        for (Menu menu : menus) {
-            if (menu.getParentId() == 0) {
-                rootMenus.add(menu);
-            }
-            for (Menu child : menus) {
-                if (child.getParentId().equals(menu.getId())) {
-                    if (menu.getChildren() == null) {
-                        menu.setChildren(new ArrayList<>());
-                    }
-                    menu.getChildren().add(child);
-                }
-            }
-        }
-        return rootMenus;
+    private void evictMenuTree() {
+        TransactionUtils.afterCommit(() -> {
+            menuTreeVersion.incrementAndGet();
+            menuTree = null;
+        });
     }
 }
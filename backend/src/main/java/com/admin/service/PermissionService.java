@@ -1,10 +1,11 @@
 package com.admin.service;
 
+import com.admin.cache.PermissionCache;
+import com.admin.cache.PermissionIndex;
+import com.admin.cache.PermissionSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 /**
  * 权限服务
  * 提供权限判断功能
@@ -15,6 +16,12 @@ public class PermissionService {
     @Autowired
     private MenuService menuService;
 
+    @Autowired
+    private PermissionCache permissionCache;
+
+    @Autowired
+    private PermissionIndex permissionIndex;
+
     /**
      * 判断用户是否拥有指定权限
      * 
@@ -27,11 +34,8 @@ public class PermissionService {
             return false;
         }
 
-        // 获取用户的所有权限
-        List<String> userPermissions = menuService.getPermissionsByUserId(userId);
-
-        // 检查是否包含所需权限
-        return userPermissions.contains(permission);
+        // 检查有效权限位图中是否设置了对应权限位
+        return PermissionIndex.test(getEffectiveBits(userId), permissionIndex.idOf(permission));
     }
 
     /**
@@ -46,10 +50,10 @@ public class PermissionService {
             return false;
         }
 
-        List<String> userPermissions = menuService.getPermissionsByUserId(userId);
+        long[] bits = getEffectiveBits(userId);
 
         for (String permission : permissions) {
-            if (userPermissions.contains(permission)) {
+            if (PermissionIndex.test(bits, permissionIndex.idOf(permission))) {
                 return true;
             }
         }
@@ -69,14 +73,22 @@ public class PermissionService {
             return false;
         }
 
-        List<String> userPermissions = menuService.getPermissionsByUserId(userId);
+        long[] bits = getEffectiveBits(userId);
 
         for (String permission : permissions) {
-            if (!userPermissions.contains(permission)) {
+            if (!PermissionIndex.test(bits, permissionIndex.idOf(permission))) {
                 return false;
             }
         }
 
         return true;
     }
+
+    /**
+     * 获取用户的有效权限位图,用户角色优先从缓存读取
+     */
+    private long[] getEffectiveBits(Long userId) {
+        PermissionSnapshot snapshot = permissionCache.get(userId, menuService::loadPermissionSnapshot);
+        return snapshot.effectiveBits(permissionIndex);
+    }
 }
@@ -1,14 +1,22 @@
 package com.admin.service;
 
+import com.admin.annotation.ReplicaRead;
+import com.admin.cache.PermissionIndex;
+import com.admin.cache.RowCountCache;
+import com.admin.dto.CursorPage;
 import com.admin.entity.Role;
 import com.admin.mapper.RoleMapper;
 import com.admin.entity.RoleMenu;
 import com.admin.mapper.RoleMenuMapper;
+import com.admin.util.IdSetDiff;
+import com.admin.util.SeekCursor;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -22,21 +30,60 @@ import java.util.stream.Collectors;
 @Service
 public class RoleService extends ServiceImpl<RoleMapper, Role> {
 
+    private static final String TABLE = "sys_role";
+
     @Autowired
     private RoleMenuMapper roleMenuMapper;
 
+    @Autowired
+    private PermissionIndex permissionIndex;
+
+    @Autowired
+    private RowCountCache rowCountCache;
+
+    @Value("${paging.max-size:100}")
+    private int maxPageSize;
+
     /**
      * 获取角色列表（分页+搜索）
      */
+    @ReplicaRead
     public IPage<Role> getRoleList(Integer page, Integer size, String keyword) {
+        // 总数走计数缓存,翻页时不再每次执行COUNT(*)
         Page<Role> pageParam = new Page<>(page, size);
-        LambdaQueryWrapper<Role> wrapper = new LambdaQueryWrapper<>();
+        pageParam.setSearchCount(false);
+        pageParam.setTotal(countRoles(keyword));
+        return this.page(pageParam, keywordWrapper(keyword));
+    }
+
+    /**
+     * 游标分页查询角色列表(按创建时间正序),不执行COUNT(*)
+     */
+    @ReplicaRead
+    public CursorPage<Role> getRoleCursorPage(String cursor, int size, String keyword, boolean withTotal) {
+        size = Math.max(1, Math.min(size, maxPageSize));
+        QueryWrapper<Role> wrapper = keywordWrapper(keyword);
+        SeekCursor.seek(wrapper, SeekCursor.decode(cursor), false, size);
+
+        CursorPage<Role> page = SeekCursor.toPage(list(wrapper), size, Role::getCreateTime, Role::getId);
+        if (withTotal) {
+            page.setTotal(countRoles(keyword));
+        }
+        return page;
+    }
+
+    private long countRoles(String keyword) {
+        return rowCountCache.get(TABLE, keyword, () -> count(keywordWrapper(keyword)));
+    }
+
+    private static QueryWrapper<Role> keywordWrapper(String keyword) {
+        QueryWrapper<Role> wrapper = new QueryWrapper<>();
         if (StringUtils.hasText(keyword)) {
-            wrapper.like(Role::getRoleName, keyword)
+            wrapper.and(w -> w.like("role_name", keyword)
                     .or()
-                    .like(Role::getRoleCode, keyword);
+                    .like("role_code", keyword));
         }
-        return this.page(pageParam, wrapper);
+        return wrapper;
     }
 
     /**
@@ -50,14 +97,18 @@ public class RoleService extends ServiceImpl<RoleMapper, Role> {
      * 新增角色
      */
     public boolean addRole(Role role) {
-        return save(role);
+        boolean success = save(role);
+        rowCountCache.evict(TABLE);
+        return success;
     }
 
     /**
      * 更新角色
      */
     public boolean updateRole(Role role) {
-        return updateById(role);
+        boolean success = updateById(role);
+        rowCountCache.evict(TABLE);
+        return success;
     }
 
     /**
@@ -67,7 +118,10 @@ public class RoleService extends ServiceImpl<RoleMapper, Role> {
         // 删除角色时同时删除关联的菜单权限
         roleMenuMapper.delete(new LambdaQueryWrapper<RoleMenu>()
                 .eq(RoleMenu::getRoleId, id));
-        return removeById(id);
+        permissionIndex.removeRole(id);
+        boolean success = removeById(id);
+        rowCountCache.evict(TABLE);
+        return success;
     }
 
     /**
@@ -82,18 +136,19 @@ public class RoleService extends ServiceImpl<RoleMapper, Role> {
 
     /**
      * 分配角色菜单权限
+     * 与已有权限比较,只删除取消的菜单、多行批量插入新增的菜单
      */
     @Transactional
     public void assignRoleMenus(Long roleId, List<Long> menuIds) {
-        // 先删除原有权限
-        roleMenuMapper.delete(new LambdaQueryWrapper<RoleMenu>()
-                .eq(RoleMenu::getRoleId, roleId));
-
-        // 批量插入新权限
-        if (menuIds != null && !menuIds.isEmpty()) {
-            menuIds.forEach(menuId -> {
-                roleMenuMapper.insert(new RoleMenu(roleId, menuId));
-            });
+        IdSetDiff diff = IdSetDiff.of(getRoleMenus(roleId), menuIds);
+        if (diff.isEmpty()) {
+            return;
         }
+
+        IdSetDiff.forEachChunk(diff.getRemoved(), ids -> roleMenuMapper.deleteByMenuIds(roleId, ids));
+        IdSetDiff.forEachChunk(diff.getAdded(), ids -> roleMenuMapper.insertBatch(roleId, ids));
+
+        // 增量刷新该角色的权限位图
+        permissionIndex.refreshRole(roleId);
     }
 }
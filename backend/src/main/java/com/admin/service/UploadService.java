@@ -0,0 +1,228 @@
+package com.admin.service;
+
+import com.admin.common.enums.ErrorCode;
+import com.admin.common.exception.BusinessException;
+import com.admin.dto.UploadInitRequest;
+import com.admin.dto.UploadStatus;
+import com.admin.entity.FileRecord;
+import com.admin.upload.BlobStore;
+import com.admin.upload.UploadSession;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 分片上传服务
+ * 会话清单和分片存放在 upload.dir/sessions/{id},合并后的文件按内容SHA-256去重保存到 {@link BlobStore};
+ * 握手时携带sha256且用户自己已有相同内容的文件时直接秒传,不再上传任何分片。
+ * 启动时从磁盘恢复未完成的会话,客户端通过握手接口取回缺失的分片后继续上传
+ */
+@Slf4j
+@Service
+public class UploadService {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private FileService fileService;
+
+    @Value("${upload.dir:data/uploads}")
+    private String uploadDir;
+
+    @Value("${upload.chunk-size:5242880}")
+    private int defaultChunkSize;
+
+    @Value("${upload.max-chunk-size:67108864}")
+    private int maxChunkSize;
+
+    @Value("${upload.min-chunk-size:262144}")
+    private int minChunkSize;
+
+    @Value("${upload.max-chunks:10000}")
+    private int maxChunks;
+
+    @Value("${upload.max-file-size:10737418240}")
+    private long maxFileSize;
+
+    @Value("${upload.session-ttl:86400000}")
+    private long sessionTtl;
+
+    private Path sessionsDir;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path root = Paths.get(uploadDir).toAbsolutePath();
+        sessionsDir = Files.createDirectories(root.resolve("sessions"));
+        try (Stream<Path> dirs = Files.list(sessionsDir)) {
+            dirs.filter(Files::isDirectory).forEach(dir -> {
+                try {
+                    UploadSession session = UploadSession.load(dir, objectMapper);
+                    sessions.put(session.getId(), session);
+                } catch (IOException e) {
+                    log.warn("上传会话恢复失败,跳过: {}", dir, e);
+                }
+            });
+        }
+        log.info("上传会话已恢复: {}个", sessions.size());
+    }
+
+    /**
+     * 握手: 同一用户以相同fileKey、大小和分片大小再次握手时返回原会话及缺失的分片,否则创建新会话
+     */
+    public UploadStatus init(UploadInitRequest request, Long userId) throws IOException {
+        if (!StringUtils.hasText(request.getFileName())) {
+            throw new BusinessException(400, "请携带文件名");
+        }
+        long fileSize = request.getFileSize() == null ? -1 : request.getFileSize();
+        if (fileSize < 0 || fileSize > maxFileSize) {
+            throw new BusinessException(400, "文件大小超出限制");
+        }
+        int chunkSize = request.getChunkSize() == null ? defaultChunkSize : request.getChunkSize();
+        // 文件能放进一个分片时不限制最小分片大小
+        if (chunkSize > maxChunkSize || chunkSize <= 0 || (chunkSize < minChunkSize && chunkSize < fileSize)) {
+            throw new BusinessException(400, "分片大小应在" + minChunkSize + "到" + maxChunkSize + "字节之间");
+        }
+        long totalChunks = UploadSession.totalChunks(fileSize, chunkSize);
+        if (totalChunks > maxChunks) {
+            throw new BusinessException(400, "分片数量超出限制(" + maxChunks + "),请增大分片大小");
+        }
+        String fileName = Paths.get(request.getFileName()).getFileName().toString();
+        String sha256 = null;
+        if (StringUtils.hasText(request.getSha256())) {
+            sha256 = request.getSha256().trim().toLowerCase(Locale.ROOT);
+            if (!BlobStore.isSha256(sha256)) {
+                throw new BusinessException(400, "sha256格式不正确");
+            }
+            FileRecord existing = fileService.addReference(sha256, fileSize, fileName, userId);
+            if (existing != null) {
+                return UploadStatus.instant(existing);
+            }
+        }
+        String fileKey = request.getFileKey();
+        if (StringUtils.hasText(fileKey)) {
+            for (UploadSession session : sessions.values()) {
+                if (fileKey.equals(session.getFileKey()) && Objects.equals(userId, session.getUserId())
+                        && session.getFileSize() == fileSize && session.getChunkSize() == chunkSize
+                        && session.getStatus() != UploadSession.Status.COMPLETED) {
+                    return UploadStatus.of(session);
+                }
+            }
+        }
+
+        String id = UUID.randomUUID().toString().replace("-", "");
+        UploadSession session = UploadSession.create(sessionsDir.resolve(id), objectMapper, userId, fileKey,
+                sha256, fileName, fileSize, chunkSize);
+        sessions.put(id, session);
+        return UploadStatus.of(session);
+    }
+
+    /**
+     * 查询上传进度
+     */
+    public UploadStatus getStatus(String uploadId, Long userId) {
+        return UploadStatus.of(getSession(uploadId, userId));
+    }
+
+    /**
+     * 写入分片,请求体直接流式落盘
+     */
+    public UploadStatus writeChunk(String uploadId, int index, InputStream in, long contentLength, Long userId)
+            throws IOException {
+        UploadSession session = getSession(uploadId, userId);
+        session.writeChunk(index, in, contentLength);
+        return UploadStatus.of(session);
+    }
+
+    /**
+     * 所有分片到齐后合并为完整文件,计算SHA-256后存入内容存储;内容已存在时只增加引用
+     */
+    public UploadStatus complete(String uploadId, Long userId) throws IOException {
+        UploadSession session = getSession(uploadId, userId);
+        if (!session.beginMerge()) {
+            return UploadStatus.of(session);
+        }
+        FileRecord record = null;
+        Path merged = blobStore.createTempFile("merge-");
+        try {
+            long start = System.currentTimeMillis();
+            session.mergeTo(merged);
+            String sha256 = BlobStore.sha256(merged);
+            if (session.getSha256() != null && !session.getSha256().equals(sha256)) {
+                throw new BusinessException(400, "文件校验失败,SHA-256与握手时声明的不一致,请取消后重新上传");
+            }
+            record = fileService.store(merged, sha256, session.getFileSize(), session.getFileName(), session.getUserId());
+            log.info("分片合并完成: id={} file={} size={} chunks={} sha256={} elapsed={}ms", uploadId,
+                    session.getFileName(), session.getFileSize(), session.getTotalChunks(), sha256,
+                    System.currentTimeMillis() - start);
+        } finally {
+            Files.deleteIfExists(merged);
+            session.endMerge(record == null ? null : record.getId());
+        }
+        return UploadStatus.of(session);
+    }
+
+    /**
+     * 取消上传,删除已上传的分片
+     */
+    public void cancel(String uploadId, Long userId) {
+        UploadSession session = getSession(uploadId, userId);
+        if (session.getStatus() == UploadSession.Status.MERGING) {
+            throw new BusinessException("文件正在合并中");
+        }
+        if (session.getStatus() == UploadSession.Status.COMPLETED) {
+            throw new BusinessException("上传已完成,无法取消");
+        }
+        sessions.remove(uploadId);
+        session.delete();
+    }
+
+    /**
+     * 定时清理长时间没有新分片的未完成会话,以及已完成会话的清单(文件已在内容存储中)
+     */
+    @Scheduled(fixedDelay = 3600000)
+    public void purgeExpiredSessions() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> {
+            if (session.getStatus() != UploadSession.Status.MERGING && now - session.getUpdateTime() > sessionTtl) {
+                log.info("清理过期上传会话: id={} file={}", session.getId(), session.getFileName());
+                session.delete();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private UploadSession getSession(String uploadId, Long userId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new BusinessException(404, "上传会话不存在");
+        }
+        if (userId != null && !userId.equals(session.getUserId())) {
+            throw new BusinessException(ErrorCode.FORBIDDEN);
+        }
+        return session;
+    }
+}
@@ -0,0 +1,91 @@
+package com.admin.service;
+
+import com.admin.entity.Role;
+import com.admin.entity.User;
+import com.admin.entity.UserRole;
+import com.admin.mapper.RoleMapper;
+import com.admin.mapper.UserRoleMapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 用户角色批量加载器
+ * 无论用户数量多少,固定使用两次查询:一次查询关联关系,一次查询角色详情
+ */
+@Component
+public class UserRoleLoader {
+
+    @Autowired
+    private UserRoleMapper userRoleMapper;
+
+    @Autowired
+    private RoleMapper roleMapper;
+
+    /**
+     * 批量查询用户的角色,返回 用户ID -> 角色列表(无角色的用户不在结果中)
+     */
+    public Map<Long, List<Role>> loadRoles(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Map.of();
+        }
+
+        // 1. 一次查询所有用户的角色关联
+        QueryWrapper<UserRole> wrapper = new QueryWrapper<>();
+        wrapper.in("user_id", userIds);
+        List<UserRole> userRoles = userRoleMapper.selectList(wrapper);
+        if (userRoles.isEmpty()) {
+            return Map.of();
+        }
+
+        // 2. 一次查询涉及的所有角色
+        List<Long> roleIds = userRoles.stream()
+                .map(UserRole::getRoleId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Role> roles = roleMapper.selectBatchIds(roleIds).stream()
+                .collect(Collectors.toMap(Role::getId, Function.identity()));
+
+        // 3. 在内存中组装
+        Map<Long, List<Role>> result = new HashMap<>(userIds.size() * 2);
+        for (UserRole userRole : userRoles) {
+            Role role = roles.get(userRole.getRoleId());
+            if (role != null) {
+                result.computeIfAbsent(userRole.getUserId(), k -> new ArrayList<>()).add(role);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 查询单个用户的角色
+     */
+    public List<Role> loadRoles(Long userId) {
+        return loadRoles(List.of(userId)).getOrDefault(userId, List.of());
+    }
+
+    /**
+     * 为用户列表批量填充角色信息
+     */
+    public void fillRoles(List<User> users) {
+        if (users == null || users.isEmpty()) {
+            return;
+        }
+        List<Long> userIds = users.stream().map(User::getId).collect(Collectors.toList());
+        Map<Long, List<Role>> roles = loadRoles(userIds);
+        for (User user : users) {
+            List<Role> userRoles = roles.get(user.getId());
+            if (userRoles != null) {
+                user.setRoles(userRoles);
+            }
+        }
+    }
+}
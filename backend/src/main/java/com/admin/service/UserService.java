@@ -1,16 +1,21 @@
 package com.admin.service;
 
-import com.admin.entity.Role;
+import com.admin.annotation.ReplicaRead;
+import com.admin.cache.PermissionCache;
+import com.admin.cache.RowCountCache;
+import com.admin.dto.CursorPage;
 import com.admin.entity.User;
 import com.admin.entity.UserRole;
-import com.admin.mapper.RoleMapper;
 import com.admin.mapper.UserMapper;
 import com.admin.mapper.UserRoleMapper;
+import com.admin.util.IdSetDiff;
+import com.admin.util.SeekCursor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,11 +28,13 @@ import java.util.stream.Collectors;
 @Service
 public class UserService {
 
+    private static final String TABLE = "sys_user";
+
     @Autowired
     private UserMapper userMapper;
 
     @Autowired
-    private RoleMapper roleMapper;
+    private UserRoleLoader userRoleLoader;
 
     @Autowired
     private UserRoleMapper userRoleMapper;
@@ -35,57 +42,77 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PermissionCache permissionCache;
+
+    @Autowired
+    private RowCountCache rowCountCache;
+
+    @Value("${paging.max-size:100}")
+    private int maxPageSize;
+
     /**
      * 获取用户列表
      */
+    @ReplicaRead
     public IPage<User> getUserList(Integer page, Integer size, String keyword) {
+        // 总数走计数缓存,翻页时不再每次执行COUNT(*)
         Page<User> pageParam = new Page<>(page, size);
-        QueryWrapper<User> wrapper = new QueryWrapper<>();
-
-        if (keyword != null && !keyword.isEmpty()) {
-            wrapper.like("username", keyword)
-                    .or()
-                    .like("email", keyword);
-        }
+        pageParam.setSearchCount(false);
+        pageParam.setTotal(countUsers(keyword));
 
+        QueryWrapper<User> wrapper = keywordWrapper(keyword);
         wrapper.orderByAsc("create_time");
 
         IPage<User> userPage = userMapper.selectPage(pageParam, wrapper);
 
-        // 填充角色信息
-        for (User user : userPage.getRecords()) {
-            fillUserRoles(user);
-        }
+        // 批量填充角色信息
+        userRoleLoader.fillRoles(userPage.getRecords());
 
         return userPage;
     }
 
     /**
-     * 根据ID获取用户
+     * 游标分页查询用户列表(按创建时间正序),不执行COUNT(*)
      */
-    public User getUserById(Long id) {
-        User user = userMapper.selectById(id);
-        if (user != null) {
-            fillUserRoles(user);
+    @ReplicaRead
+    public CursorPage<User> getUserCursorPage(String cursor, int size, String keyword, boolean withTotal) {
+        size = Math.max(1, Math.min(size, maxPageSize));
+        QueryWrapper<User> wrapper = keywordWrapper(keyword);
+        SeekCursor.seek(wrapper, SeekCursor.decode(cursor), false, size);
+
+        CursorPage<User> page = SeekCursor.toPage(userMapper.selectList(wrapper), size,
+                User::getCreateTime, User::getId);
+        userRoleLoader.fillRoles(page.getRecords());
+        if (withTotal) {
+            page.setTotal(countUsers(keyword));
         }
-        return user;
+        return page;
+    }
+
+    private long countUsers(String keyword) {
+        return rowCountCache.get(TABLE, keyword, () -> userMapper.selectCount(keywordWrapper(keyword)));
+    }
+
+    private static QueryWrapper<User> keywordWrapper(String keyword) {
+        QueryWrapper<User> wrapper = new QueryWrapper<>();
+        if (keyword != null && !keyword.isEmpty()) {
+            wrapper.and(w -> w.like("username", keyword)
+                    .or()
+                    .like("email", keyword));
+        }
+        return wrapper;
     }
 
     /**
-     * 填充用户角色信息
+     * 根据ID获取用户
      */
-    private void fillUserRoles(User user) {
-        QueryWrapper<UserRole> wrapper = new QueryWrapper<>();
-        wrapper.eq("user_id", user.getId());
-        List<UserRole> userRoles = userRoleMapper.selectList(wrapper);
-
-        if (!userRoles.isEmpty()) {
-            List<Long> roleIds = userRoles.stream()
-                    .map(UserRole::getRoleId)
-                    .collect(Collectors.toList());
-            List<Role> roles = roleMapper.selectBatchIds(roleIds);
-            user.setRoles(roles);
+    public User getUserById(Long id) {
+        User user = userMapper.selectById(id);
+        if (user != null) {
+            userRoleLoader.fillRoles(List.of(user));
         }
+        return user;
     }
 
     /**
@@ -111,10 +138,11 @@ public class UserService {
         }
 
         int rows = userMapper.insert(user);
+        rowCountCache.evict(TABLE);
 
         // 保存角色关联
         if (rows > 0 && user.getRoleIds() != null && !user.getRoleIds().isEmpty()) {
-            saveUserRoles(user.getId(), user.getRoleIds());
+            saveUserRoles(user.getId(), List.of(), user.getRoleIds());
         }
 
         return rows > 0;
@@ -135,17 +163,18 @@ public class UserService {
         }
 
         int rows = userMapper.updateById(user);
+        // 用户名、邮箱变化会影响按关键字统计的总数
+        rowCountCache.evict(TABLE);
 
-        // 更新角色关联
+        // 更新角色关联,角色有变化时失效该用户的权限缓存
         if (rows > 0 && user.getRoleIds() != null) {
-            // 先删除旧关联
             QueryWrapper<UserRole> wrapper = new QueryWrapper<>();
-            wrapper.eq("user_id", user.getId());
-            userRoleMapper.delete(wrapper);
-
-            // 保存新关联
-            if (!user.getRoleIds().isEmpty()) {
-                saveUserRoles(user.getId(), user.getRoleIds());
+            wrapper.select("role_id").eq("user_id", user.getId());
+            List<Long> existing = userRoleMapper.selectList(wrapper).stream()
+                    .map(UserRole::getRoleId)
+                    .collect(Collectors.toList());
+            if (saveUserRoles(user.getId(), existing, user.getRoleIds())) {
+                permissionCache.evictUser(user.getId());
             }
         }
 
@@ -154,12 +183,13 @@ public class UserService {
 
     /**
      * 保存用户角色关联
+     * 与已有角色比较,只删除取消的角色、多行批量插入新增的角色;返回关联是否有变化
      */
-    private void saveUserRoles(Long userId, List<Long> roleIds) {
-        for (Long roleId : roleIds) {
-            UserRole userRole = new UserRole(userId, roleId);
-            userRoleMapper.insert(userRole);
-        }
+    private boolean saveUserRoles(Long userId, List<Long> existing, List<Long> roleIds) {
+        IdSetDiff diff = IdSetDiff.of(existing, roleIds);
+        IdSetDiff.forEachChunk(diff.getRemoved(), ids -> userRoleMapper.deleteByRoleIds(userId, ids));
+        IdSetDiff.forEachChunk(diff.getAdded(), ids -> userRoleMapper.insertBatch(userId, ids));
+        return !diff.isEmpty();
     }
 
     /**
@@ -171,6 +201,8 @@ public class UserService {
         QueryWrapper<UserRole> wrapper = new QueryWrapper<>();
         wrapper.eq("user_id", id);
         userRoleMapper.delete(wrapper);
+        permissionCache.evictUser(id);
+        rowCountCache.evict(TABLE);
 
         return userMapper.deleteById(id) > 0;
     }
@@ -0,0 +1,107 @@
+package com.admin.upload;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * 按内容寻址的文件存储
+ * 内容以SHA-256命名,存放在 upload.dir/blobs/{前两位}/{sha256},相同内容在磁盘上只保存一份;
+ * 引用计数等元数据由 file_blob 表维护
+ */
+@Component
+public class BlobStore {
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    /**
+     * 计算摘要时的读缓冲大小
+     */
+    private static final int DIGEST_BUFFER = 64 * 1024;
+
+    @Value("${upload.dir:data/uploads}")
+    private String uploadDir;
+
+    private Path blobsDir;
+
+    private Path tmpDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path root = Paths.get(uploadDir).toAbsolutePath();
+        blobsDir = Files.createDirectories(root.resolve("blobs"));
+        tmpDir = Files.createDirectories(root.resolve("tmp"));
+    }
+
+    /**
+     * 是否为合法的SHA-256十六进制串(小写)
+     */
+    public static boolean isSha256(String value) {
+        return value != null && SHA256.matcher(value).matches();
+    }
+
+    /**
+     * 内容文件路径
+     */
+    public Path path(String sha256) {
+        return blobsDir.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    public boolean exists(String sha256) {
+        return Files.exists(path(sha256));
+    }
+
+    /**
+     * 在存储目录内创建临时文件,保证之后移入内容目录是同一文件系统内的原子改名
+     */
+    public Path createTempFile(String prefix) throws IOException {
+        return Files.createTempFile(tmpDir, prefix, ".tmp");
+    }
+
+    /**
+     * 将临时文件移入内容目录
+     */
+    public void put(Path source, String sha256) throws IOException {
+        Path target = path(sha256);
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void delete(String sha256) throws IOException {
+        Files.deleteIfExists(path(sha256));
+    }
+
+    /**
+     * 顺序读取文件计算SHA-256,使用直接缓冲区,不在堆上分配大数组
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(DIGEST_BUFFER);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,204 @@
+package com.admin.upload;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文件下载输出
+ * 支持 ETag/Last-Modified 条件请求、Range/If-Range 断点续传以及多区间(multipart/byteranges)响应。
+ * 整文件和单区间在Tomcat支持时交给连接器用 sendfile 零拷贝发送,否则及多区间时用 FileChannel.transferTo 输出
+ */
+@Slf4j
+@Component
+public class FileSender {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Value("${upload.download.sendfile:true}")
+    private boolean sendfile;
+
+    /**
+     * 输出文件
+     *
+     * @param etag         强校验ETag(不含引号)
+     * @param lastModified 最后修改时间(毫秒时间戳)
+     */
+    public void send(HttpServletRequest request, HttpServletResponse response, Path file, long length,
+                     String etag, long lastModified, String fileName) throws IOException {
+        String quotedEtag = "\"" + etag + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(quotedEtag, lastModified)) {
+            return;
+        }
+        MediaType contentType = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build().toString());
+
+        List<HttpRange> ranges = List.of();
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, quotedEtag, lastModified)) {
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+                validate(ranges, length);
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+
+        boolean head = "HEAD".equalsIgnoreCase(request.getMethod());
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType.toString());
+            response.setContentLengthLong(length);
+            if (!head) {
+                sendRegion(request, response, file, 0, length);
+            }
+        } else if (ranges.size() == 1) {
+            long start = ranges.get(0).getRangeStart(length);
+            long end = ranges.get(0).getRangeEnd(length);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(contentType.toString());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            response.setContentLengthLong(end - start + 1);
+            if (!head) {
+                sendRegion(request, response, file, start, end - start + 1);
+            }
+        } else {
+            sendMultipart(response, file, length, ranges, contentType, head);
+        }
+    }
+
+    /**
+     * If-Range 与当前ETag或修改时间一致时才按Range响应,否则返回整个文件
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String quotedEtag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(quotedEtag);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return date >= 0 && lastModified / 1000 <= date / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 每个区间必须可满足,且所有区间的总长度不超过文件长度(防止重叠区间放大响应)
+     */
+    private static void validate(List<HttpRange> ranges, long length) {
+        long total = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                throw new IllegalArgumentException("区间不可满足");
+            }
+            total += end - start + 1;
+        }
+        if (total > length) {
+            throw new IllegalArgumentException("区间总长度超过文件长度");
+        }
+    }
+
+    /**
+     * 输出文件的一个连续区间;Tomcat支持sendfile时只设置请求属性,由连接器在请求结束后直接从文件发送
+     */
+    private void sendRegion(HttpServletRequest request, HttpServletResponse response, Path file,
+                            long start, long count) throws IOException {
+        if (sendfile && count > 0 && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            transfer(channel, start, count, out);
+        }
+    }
+
+    private static void sendMultipart(HttpServletResponse response, Path file, long length, List<HttpRange> ranges,
+                                      MediaType contentType, boolean head) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + start + "-" + end + "/" + length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + end - start + 1;
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                long start = ranges.get(i).getRangeStart(length);
+                long end = ranges.get(i).getRangeEnd(length);
+                out.write(partHeaders.get(i));
+                transfer(in, start, end - start + 1, channel);
+            }
+        }
+        out.write(closing);
+    }
+
+    private static void transfer(FileChannel in, long start, long count, WritableByteChannel out) throws IOException {
+        long position = start;
+        long remaining = count;
+        while (remaining > 0) {
+            long n = in.transferTo(position, remaining, out);
+            if (n <= 0) {
+                throw new IOException("文件在发送过程中被截断");
+            }
+            position += n;
+            remaining -= n;
+        }
+    }
+}
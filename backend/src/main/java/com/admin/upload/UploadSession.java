@@ -0,0 +1,349 @@
+package com.admin.upload;
+
+import com.admin.common.exception.BusinessException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * 分片上传会话
+ * 每个分片直接从请求流写入独立的分片文件,已完成分片记录在位图中并随清单(manifest.json)持久化,
+ * 服务重启后可继续上传;全部分片到齐后用 FileChannel.transferTo 依次拼接为完整文件,再交给内容存储去重保存
+ */
+@Slf4j
+public class UploadSession {
+
+    public enum Status {
+        UPLOADING, MERGING, COMPLETED
+    }
+
+    private static final String MANIFEST = "manifest.json";
+
+    private static final String CHUNK_SUFFIX = ".chunk";
+
+    private final Path dir;
+
+    private final ObjectMapper objectMapper;
+
+    private final Manifest manifest;
+
+    private final BitSet chunks;
+
+    private UploadSession(Path dir, ObjectMapper objectMapper, Manifest manifest) {
+        this.dir = dir;
+        this.objectMapper = objectMapper;
+        this.manifest = manifest;
+        this.chunks = BitSet.valueOf(manifest.getChunks() == null ? new long[0] : manifest.getChunks());
+    }
+
+    /**
+     * 创建新会话并写入清单
+     */
+    public static UploadSession create(Path dir, ObjectMapper objectMapper, Long userId, String fileKey,
+                                       String sha256, String fileName, long fileSize, int chunkSize) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.setId(dir.getFileName().toString());
+        manifest.setUserId(userId);
+        manifest.setFileKey(fileKey);
+        manifest.setSha256(sha256);
+        manifest.setFileName(fileName);
+        manifest.setFileSize(fileSize);
+        manifest.setChunkSize(chunkSize);
+        long totalChunks = totalChunks(fileSize, chunkSize);
+        if (chunkSize <= 0 || totalChunks > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("分片数量超出范围: " + totalChunks);
+        }
+        manifest.setTotalChunks((int) totalChunks);
+        manifest.setStatus(Status.UPLOADING);
+        manifest.setCreateTime(System.currentTimeMillis());
+        manifest.setUpdateTime(manifest.getCreateTime());
+
+        Files.createDirectories(dir);
+        UploadSession session = new UploadSession(dir, objectMapper, manifest);
+        session.persist();
+        return session;
+    }
+
+    /**
+     * 按文件大小和分片大小计算分片数,空文件为1个分片
+     */
+    public static long totalChunks(long fileSize, int chunkSize) {
+        return fileSize == 0 ? 1 : (fileSize + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * 从会话目录恢复;位图中记录但文件已丢失的分片视为未上传,中断的合并回退为上传中
+     */
+    public static UploadSession load(Path dir, ObjectMapper objectMapper) throws IOException {
+        Manifest manifest = objectMapper.readValue(dir.resolve(MANIFEST).toFile(), Manifest.class);
+        UploadSession session = new UploadSession(dir, objectMapper, manifest);
+        if (manifest.getStatus() != Status.COMPLETED) {
+            for (int i = session.chunks.nextSetBit(0); i >= 0; i = session.chunks.nextSetBit(i + 1)) {
+                if (!Files.exists(session.chunkPath(i))) {
+                    session.chunks.clear(i);
+                }
+            }
+            manifest.setStatus(Status.UPLOADING);
+            session.persist();
+        }
+        return session;
+    }
+
+    public String getId() {
+        return manifest.getId();
+    }
+
+    public Long getUserId() {
+        return manifest.getUserId();
+    }
+
+    public String getFileKey() {
+        return manifest.getFileKey();
+    }
+
+    /**
+     * 客户端声明的内容SHA-256,合并后校验
+     */
+    public String getSha256() {
+        return manifest.getSha256();
+    }
+
+    public String getFileName() {
+        return manifest.getFileName();
+    }
+
+    public long getFileSize() {
+        return manifest.getFileSize();
+    }
+
+    public int getChunkSize() {
+        return manifest.getChunkSize();
+    }
+
+    public int getTotalChunks() {
+        return manifest.getTotalChunks();
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    public synchronized Status getStatus() {
+        return manifest.getStatus();
+    }
+
+    /**
+     * 合并完成后生成的文件ID
+     */
+    public synchronized Long getFileId() {
+        return manifest.getFileId();
+    }
+
+    public synchronized long getUpdateTime() {
+        return manifest.getUpdateTime();
+    }
+
+    public synchronized int getUploadedChunks() {
+        return chunks.cardinality();
+    }
+
+    /**
+     * 尚未上传的分片序号
+     */
+    public synchronized List<Integer> getMissingChunks() {
+        List<Integer> missing = new ArrayList<>(manifest.getTotalChunks() - chunks.cardinality());
+        for (int i = chunks.nextClearBit(0); i < manifest.getTotalChunks(); i = chunks.nextClearBit(i + 1)) {
+            missing.add(i);
+        }
+        return missing;
+    }
+
+    /**
+     * 指定分片的字节数,最后一个分片可能不足 chunkSize
+     */
+    public long chunkLength(int index) {
+        long start = (long) index * manifest.getChunkSize();
+        return Math.min(manifest.getChunkSize(), manifest.getFileSize() - start);
+    }
+
+    /**
+     * 写入一个分片
+     * 请求体经 transferFrom 以小块缓冲直接落盘,先写临时文件再原子改名;
+     * 不同分片可并发写入,只有改名和更新位图、清单时持有会话锁
+     *
+     * @return 分片是否已存在(已存在时不读取请求体)
+     */
+    public boolean writeChunk(int index, InputStream in, long contentLength) throws IOException {
+        if (index < 0 || index >= manifest.getTotalChunks()) {
+            throw new BusinessException(400, "分片序号超出范围");
+        }
+        long expected = chunkLength(index);
+        if (contentLength >= 0 && contentLength != expected) {
+            throw new BusinessException(400, "分片大小不正确,应为" + expected + "字节");
+        }
+        synchronized (this) {
+            if (manifest.getStatus() != Status.UPLOADING) {
+                throw new BusinessException("上传已结束");
+            }
+            if (chunks.get(index)) {
+                return true;
+            }
+        }
+
+        Path tmp = dir.resolve(index + CHUNK_SUFFIX + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 ReadableByteChannel src = Channels.newChannel(in)) {
+                long written = 0;
+                while (written < expected) {
+                    long n = out.transferFrom(src, written, expected - written);
+                    if (n <= 0) {
+                        break;
+                    }
+                    written += n;
+                }
+                if (written != expected || in.read() != -1) {
+                    throw new BusinessException(400, "分片大小不正确,应为" + expected + "字节");
+                }
+            }
+            // 改名在锁内进行: 写入期间同一分片的另一份已经到齐(甚至已开始合并)时直接丢弃这一份
+            synchronized (this) {
+                if (manifest.getStatus() != Status.UPLOADING || chunks.get(index)) {
+                    return true;
+                }
+                Files.move(tmp, chunkPath(index), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                chunks.set(index);
+                touchAndPersist();
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return false;
+    }
+
+    /**
+     * 分片到齐后进入合并状态,返回是否需要由调用方执行合并(已完成时返回false)
+     */
+    public synchronized boolean beginMerge() {
+        if (manifest.getStatus() == Status.COMPLETED) {
+            return false;
+        }
+        if (manifest.getStatus() == Status.MERGING) {
+            throw new BusinessException("文件正在合并中");
+        }
+        int missing = manifest.getTotalChunks() - chunks.cardinality();
+        if (missing > 0) {
+            throw new BusinessException(400, "还有" + missing + "个分片未上传");
+        }
+        manifest.setStatus(Status.MERGING);
+        return true;
+    }
+
+    /**
+     * 按序号将所有分片拼接到target,分片之间由内核直接拷贝,不经过堆内存
+     */
+    public void mergeTo(Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < manifest.getTotalChunks(); i++) {
+                try (FileChannel in = FileChannel.open(chunkPath(i), StandardOpenOption.READ)) {
+                    long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+            if (out.size() != manifest.getFileSize()) {
+                throw new IOException("合并后文件大小不一致: " + out.size() + " != " + manifest.getFileSize());
+            }
+            out.force(true);
+        }
+    }
+
+    /**
+     * 合并结束;fileId不为空表示成功,删除分片文件,否则回到上传中,可重新合并
+     */
+    public synchronized void endMerge(Long fileId) throws IOException {
+        manifest.setFileId(fileId);
+        manifest.setStatus(fileId != null ? Status.COMPLETED : Status.UPLOADING);
+        touchAndPersist();
+        if (fileId != null) {
+            deleteChunks();
+        }
+    }
+
+    /**
+     * 删除会话目录
+     */
+    public synchronized void delete() {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            log.warn("删除上传会话目录失败: {}", dir, e);
+        }
+    }
+
+    private void deleteChunks() throws IOException {
+        for (int i = 0; i < manifest.getTotalChunks(); i++) {
+            Files.deleteIfExists(chunkPath(i));
+        }
+    }
+
+    private Path chunkPath(int index) {
+        return dir.resolve(index + CHUNK_SUFFIX);
+    }
+
+    private void touchAndPersist() throws IOException {
+        manifest.setUpdateTime(System.currentTimeMillis());
+        persist();
+    }
+
+    /**
+     * 先写临时文件再原子替换,进程中断时不会留下半个清单
+     */
+    private void persist() throws IOException {
+        manifest.setChunks(chunks.toLongArray());
+        Path tmp = dir.resolve(MANIFEST + ".tmp");
+        objectMapper.writeValue(tmp.toFile(), manifest);
+        Files.move(tmp, dir.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 持久化的会话清单
+     */
+    @Data
+    public static class Manifest {
+        private String id;
+        private Long userId;
+        private String fileKey;
+        private String sha256;
+        private String fileName;
+        private long fileSize;
+        private int chunkSize;
+        private int totalChunks;
+        private Status status;
+        private long[] chunks;
+        private Long fileId;
+        private long createTime;
+        private long updateTime;
+    }
+}
@@ -0,0 +1,62 @@
+package com.admin.util;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 关联ID集合差异
+ * 比较已有关联和目标关联,只写入新增和删除的部分,避免先全删再逐条插入
+ */
+@Getter
+public final class IdSetDiff {
+
+    /**
+     * 单条多行INSERT/IN语句的最大ID数
+     */
+    private static final int CHUNK_SIZE = 1000;
+
+    private final Set<Long> added;
+
+    private final Set<Long> removed;
+
+    private IdSetDiff(Set<Long> added, Set<Long> removed) {
+        this.added = added;
+        this.removed = removed;
+    }
+
+    /**
+     * 计算差异,目标集合中的null和重复ID会被忽略
+     */
+    public static IdSetDiff of(Collection<Long> existing, Collection<Long> target) {
+        Set<Long> current = new LinkedHashSet<>(existing);
+        Set<Long> wanted = new LinkedHashSet<>();
+        if (target != null) {
+            target.stream().filter(Objects::nonNull).forEach(wanted::add);
+        }
+        Set<Long> added = new LinkedHashSet<>(wanted);
+        added.removeAll(current);
+        current.removeAll(wanted);
+        return new IdSetDiff(added, current);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * 按批次处理ID,控制单条SQL的长度
+     */
+    public static void forEachChunk(Collection<Long> ids, Consumer<List<Long>> action) {
+        List<Long> list = new ArrayList<>(ids);
+        for (int from = 0; from < list.size(); from += CHUNK_SIZE) {
+            action.accept(list.subList(from, Math.min(from + CHUNK_SIZE, list.size())));
+        }
+    }
+}
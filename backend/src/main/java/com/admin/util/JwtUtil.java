@@ -1,19 +1,29 @@
 package com.admin.util;
 
+import com.admin.cache.ExpiringLruCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 
 /**
  * JWT工具类 - 用于生成和解析Token
+ * 密钥与解析器在启动时创建一次并复用(均为不可变、线程安全);
+ * 已验签的Token按哈希缓存至其过期时间,同一会话的重复请求无需再次验签
  */
 @Component
 public class JwtUtil {
@@ -23,12 +33,21 @@ public class JwtUtil {
     
     @Value("${jwt.expiration}")
     private Long expiration;
-    
-    /**
-     * 获取密钥
-     */
-    private SecretKey getSignKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private SecretKey signKey;
+
+    private JwtParser parser;
+
+    private ExpiringLruCache<String, TokenInfo> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signKey).build();
+        verifiedTokens = new ExpiringLruCache<>(cacheMaxSize);
     }
     
     /**
@@ -45,7 +64,7 @@ public class JwtUtil {
                 .subject(username)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignKey())
+                .signWith(signKey)
                 .compact();
     }
     
@@ -53,37 +72,85 @@ public class JwtUtil {
      * 解析Token
      */
     public Claims parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
-    
+
     /**
-     * 验证Token是否有效
+     * 验证并解析Token(单次解析),无效或已过期返回null
+     * 验签结果按Token哈希缓存至Token过期时间
      */
-    public boolean validateToken(String token) {
+    public TokenInfo verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String key = hash(token);
+        TokenInfo info = verifiedTokens.get(key);
+        if (info != null) {
+            return info;
+        }
         try {
             Claims claims = parseToken(token);
-            return !claims.getExpiration().before(new Date());
+            Date exp = claims.getExpiration();
+            if (exp == null || exp.before(new Date())) {
+                return null;
+            }
+            info = new TokenInfo(claims.get("userId", Long.class), claims.getSubject(),
+                    claims.get("role", String.class), exp.getTime());
+            verifiedTokens.put(key, info, info.getExpiration());
+            return info;
         } catch (Exception e) {
-            return false;
+            return null;
         }
     }
     
+    /**
+     * 验证Token是否有效
+     */
+    public boolean validateToken(String token) {
+        return verify(token) != null;
+    }
+    
     /**
      * 从Token中获取用户ID
      */
     public Long getUserIdFromToken(String token) {
-        Claims claims = parseToken(token);
-        return claims.get("userId", Long.class);
+        TokenInfo info = verify(token);
+        if (info != null) {
+            return info.getUserId();
+        }
+        // 无效Token:重新解析以抛出具体异常
+        return parseToken(token).get("userId", Long.class);
     }
     
     /**
      * 从Token中获取用户名
      */
     public String getUsernameFromToken(String token) {
-        return parseToken(token).getSubject();
+        TokenInfo info = verify(token);
+        return info != null ? info.getUsername() : parseToken(token).getSubject();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 已验证的Token信息
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class TokenInfo {
+        private final Long userId;
+        private final String username;
+        private final String role;
+        /**
+         * 过期时间(毫秒时间戳)
+         */
+        private final long expiration;
     }
 }
@@ -0,0 +1,29 @@
+package com.admin.util;
+
+/**
+ * 日志工具类
+ * 返回的对象只在日志实际输出时才调用toString计算内容,日志级别关闭时没有额外开销
+ */
+public final class LogUtils {
+
+    private LogUtils() {
+    }
+
+    /**
+     * 脱敏后的Token:只保留末尾4位和长度,不输出可被重放的完整Token
+     */
+    public static Object redactToken(String token) {
+        return new Object() {
+            @Override
+            public String toString() {
+                if (token == null) {
+                    return "null";
+                }
+                if (token.length() <= 8) {
+                    return "***";
+                }
+                return "***" + token.substring(token.length() - 4) + "(len=" + token.length() + ")";
+            }
+        };
+    }
+}
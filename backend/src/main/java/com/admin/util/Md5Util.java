@@ -1,11 +1,14 @@
 package com.admin.util;
 
+import lombok.extern.slf4j.Slf4j;
+
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 /**
  * MD5加密工具类
  */
+@Slf4j
 public class Md5Util {
 
     /**
@@ -31,7 +34,7 @@ public class Md5Util {
             }
             return sb.toString();
         } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
+            log.error("MD5算法不可用", e);
             return null;
         }
     }
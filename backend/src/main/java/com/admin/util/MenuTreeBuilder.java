@@ -0,0 +1,80 @@
+package com.admin.util;
+
+import com.admin.entity.Menu;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 菜单树构建工具
+ * 构建结果为新的节点副本,子菜单列表不可修改,不会改动传入的菜单实体
+ */
+public class MenuTreeBuilder {
+
+    private static final Long ROOT_ID = 0L;
+
+    /**
+     * 构建菜单树,按parentId一次分组,时间复杂度O(n)
+     * 同级菜单保持传入列表中的顺序
+     */
+    public static List<Menu> build(List<Menu> menus) {
+        List<Menu> nodes = new ArrayList<>(menus.size());
+        Map<Long, List<Menu>> childrenByParent = new HashMap<>(menus.size() * 2);
+        for (Menu menu : menus) {
+            Menu node = copyOf(menu);
+            nodes.add(node);
+            Long parentId = menu.getParentId() == null ? ROOT_ID : menu.getParentId();
+            childrenByParent.computeIfAbsent(parentId, k -> new ArrayList<>()).add(node);
+        }
+        for (Menu node : nodes) {
+            List<Menu> children = childrenByParent.get(node.getId());
+            if (children != null) {
+                node.setChildren(Collections.unmodifiableList(children));
+            }
+        }
+        List<Menu> roots = childrenByParent.get(ROOT_ID);
+        return roots == null ? List.of() : Collections.unmodifiableList(roots);
+    }
+
+    /**
+     * 按条件裁剪菜单树,返回新的树;不满足条件的节点连同其子树一起剔除
+     */
+    public static List<Menu> prune(List<Menu> tree, Predicate<Menu> include) {
+        List<Menu> result = new ArrayList<>();
+        for (Menu menu : tree) {
+            if (!include.test(menu)) {
+                continue;
+            }
+            Menu node = copyOf(menu);
+            if (menu.getChildren() != null) {
+                List<Menu> children = prune(menu.getChildren(), include);
+                node.setChildren(children.isEmpty() ? null : children);
+            }
+            result.add(node);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * 复制菜单节点(不含子菜单)
+     */
+    private static Menu copyOf(Menu menu) {
+        Menu copy = new Menu();
+        copy.setId(menu.getId());
+        copy.setTitle(menu.getTitle());
+        copy.setPath(menu.getPath());
+        copy.setIcon(menu.getIcon());
+        copy.setParentId(menu.getParentId());
+        copy.setKeepAlive(menu.getKeepAlive());
+        copy.setSortOrder(menu.getSortOrder());
+        copy.setType(menu.getType());
+        copy.setPermission(menu.getPermission());
+        copy.setCreateTime(menu.getCreateTime());
+        copy.setUpdateTime(menu.getUpdateTime());
+        return copy;
+    }
+}
@@ -0,0 +1,108 @@
+package com.admin.util;
+
+import com.admin.common.exception.BusinessException;
+import com.admin.dto.CursorPage;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 按(create_time, id)定位的分页游标
+ * 下一页从上一页最后一行之后开始读取,借助索引直接定位,耗时与页码深度无关;
+ * 游标对客户端不透明,编码为 Base64URL("创建时间,ID")
+ */
+public final class SeekCursor {
+
+    private static final String TIME_COLUMN = "create_time";
+
+    private static final String ID_COLUMN = "id";
+
+    private final LocalDateTime time;
+
+    private final Long id;
+
+    private SeekCursor(LocalDateTime time, Long id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * 编码游标
+     */
+    public static String encode(LocalDateTime time, Long id) {
+        String raw = time + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标,空串返回null(第一页)
+     */
+    public static SeekCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int comma = raw.lastIndexOf(',');
+            return new SeekCursor(LocalDateTime.parse(raw.substring(0, comma)),
+                    Long.valueOf(raw.substring(comma + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BusinessException("无效的分页游标");
+        }
+    }
+
+    /**
+     * 追加游标之后的定位条件、排序以及 LIMIT size+1(多取一行用于判断是否还有下一页)
+     *
+     * @param desc true按创建时间倒序,false正序
+     */
+    public static <T> void seek(QueryWrapper<T> wrapper, SeekCursor cursor, boolean desc, int size) {
+        if (cursor != null) {
+            LocalDateTime time = cursor.getTime();
+            Long id = cursor.getId();
+            if (desc) {
+                wrapper.and(w -> w.lt(TIME_COLUMN, time)
+                        .or(x -> x.eq(TIME_COLUMN, time).lt(ID_COLUMN, id)));
+            } else {
+                wrapper.and(w -> w.gt(TIME_COLUMN, time)
+                        .or(x -> x.eq(TIME_COLUMN, time).gt(ID_COLUMN, id)));
+            }
+        }
+        if (desc) {
+            wrapper.orderByDesc(TIME_COLUMN).orderByDesc(ID_COLUMN);
+        } else {
+            wrapper.orderByAsc(TIME_COLUMN).orderByAsc(ID_COLUMN);
+        }
+        wrapper.last("LIMIT " + (size + 1));
+    }
+
+    /**
+     * 将 {@link #seek} 查出的最多size+1行组装为分页结果
+     */
+    public static <T> CursorPage<T> toPage(List<T> rows, int size,
+                                           Function<T, LocalDateTime> timeOf, Function<T, Long> idOf) {
+        boolean hasMore = rows.size() > size;
+        List<T> records = hasMore ? rows.subList(0, size) : rows;
+        CursorPage<T> page = new CursorPage<>();
+        page.setRecords(records);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            T last = records.get(records.size() - 1);
+            page.setNextCursor(encode(timeOf.apply(last), idOf.apply(last)));
+        }
+        return page;
+    }
+}
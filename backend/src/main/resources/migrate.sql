@@ -72,6 +72,50 @@ SELECT 2, id FROM sys_menu WHERE type = 'button' AND permission LIKE 'article:%'
 -- 10. 删除 sys_user 表的 role_id 字段(可选,建议保留一段时间作为备份)
 -- ALTER TABLE sys_user DROP COLUMN role_id;
 
+-- 11. 创建聊天消息表(历史消息按(send_time, id)游标分页)
+CREATE TABLE IF NOT EXISTS `chat_message` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '消息ID',
+  `sender_id` bigint NOT NULL COMMENT '发送者ID',
+  `receiver_id` bigint DEFAULT NULL COMMENT '接收者ID,为空表示公共聊天室',
+  `message` text NOT NULL COMMENT '消息内容',
+  `send_time` datetime NOT NULL COMMENT '发送时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_receiver_time` (`receiver_id`, `send_time`, `id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='聊天消息表';
+
+-- 12. 系统监控权限(慢SQL、运行指标),分配给管理员
+INSERT INTO sys_menu (parent_id, title, path, icon, sort_order, keep_alive, type, permission)
+SELECT 2, '系统监控', NULL, NULL, 4, 0, 'button', 'monitor:view' FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM sys_menu WHERE permission = 'monitor:view');
+
+INSERT IGNORE INTO sys_role_menu (role_id, menu_id)
+SELECT 1, id FROM sys_menu WHERE permission = 'monitor:view';
+
+-- 13. 列表游标分页按(create_time, id)定位,为用户表和文章表添加索引
+ALTER TABLE sys_user ADD INDEX idx_create_time (create_time, id);
+ALTER TABLE sys_article ADD INDEX idx_create_time (create_time, id);
+
+-- 14. 创建文件内容表和用户文件表(上传文件按内容SHA-256去重)
+CREATE TABLE IF NOT EXISTS `file_blob` (
+  `sha256` char(64) NOT NULL COMMENT '内容SHA-256',
+  `file_size` bigint(20) NOT NULL COMMENT '内容大小(字节)',
+  `ref_count` int(11) NOT NULL DEFAULT '0' COMMENT '引用计数',
+  `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`sha256`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件内容表';
+
+CREATE TABLE IF NOT EXISTS `file_record` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '文件ID',
+  `user_id` bigint(20) DEFAULT NULL COMMENT '上传者ID',
+  `file_name` varchar(255) NOT NULL COMMENT '文件名',
+  `sha256` char(64) NOT NULL COMMENT '内容SHA-256',
+  `file_size` bigint(20) NOT NULL COMMENT '文件大小(字节)',
+  `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_user_time` (`user_id`, `create_time`, `id`),
+  KEY `idx_sha256` (`sha256`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户文件表';
+
 -- 迁移完成提示
 SELECT '数据迁移完成!' as message,
        (SELECT COUNT(*) FROM sys_user_role) as user_role_count,
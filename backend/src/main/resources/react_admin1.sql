@@ -29,7 +29,8 @@ CREATE TABLE `sys_article`  (
   `status` tinyint(4) NULL DEFAULT 1 COMMENT '状态 1:发布 0:草稿',
   `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_create_time`(`create_time` ASC, `id` ASC) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 10 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '文章表' ROW_FORMAT = Dynamic;
 
 -- ----------------------------
@@ -39,6 +40,20 @@ INSERT INTO `sys_article` VALUES (1, 'React Admin 开发指南', '这是一个
 INSERT INTO `sys_article` VALUES (2, 'RBAC 权限设计详解', 'RBAC (Role-Based Access Control) 是目前最流行的权限控制模型...', 'admin', 1, '2023-01-02 00:00:00', '2023-01-02 00:00:00');
 INSERT INTO `sys_article` VALUES (3, 'Tailwind CSS 实战', 'Tailwind CSS 是一个功能类优先的 CSS 框架...', 'user', 1, '2023-01-03 00:00:00', '2023-01-03 00:00:00');
 
+-- ----------------------------
+-- Table structure for chat_message
+-- ----------------------------
+DROP TABLE IF EXISTS `chat_message`;
+CREATE TABLE `chat_message` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '消息ID',
+  `sender_id` bigint(20) NOT NULL COMMENT '发送者ID',
+  `receiver_id` bigint(20) DEFAULT NULL COMMENT '接收者ID,为空表示公共聊天室',
+  `message` text NOT NULL COMMENT '消息内容',
+  `send_time` datetime NOT NULL COMMENT '发送时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_receiver_time` (`receiver_id`, `send_time`, `id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='聊天消息表';
+
 -- ----------------------------
 -- Table structure for sys_menu
 -- ----------------------------
@@ -81,6 +96,7 @@ INSERT INTO `sys_menu` VALUES (20, 5, '删除菜单', NULL, NULL, 3, 0, 'button'
 INSERT INTO `sys_menu` VALUES (21, 7, '新增文章', NULL, NULL, 1, 0, 'button', 'article:add', '2023-01-01 00:00:00', '2023-01-01 00:00:00');
 INSERT INTO `sys_menu` VALUES (22, 7, '编辑文章', NULL, NULL, 2, 0, 'button', 'article:edit', '2023-01-01 00:00:00', '2023-01-01 00:00:00');
 INSERT INTO `sys_menu` VALUES (23, 7, '删除文章', NULL, NULL, 3, 0, 'button', 'article:delete', '2023-01-01 00:00:00', '2023-01-01 00:00:00');
+INSERT INTO `sys_menu` VALUES (24, 2, '系统监控', NULL, NULL, 4, 0, 'button', 'monitor:view', '2023-01-01 00:00:00', '2023-01-01 00:00:00');
 INSERT INTO `sys_menu` VALUES (100, 6, '聊天室', '/chat', 'MessageSquare', 2, 1, 'menu', 'article:chat', '2025-12-02 23:51:41', '2025-12-02 23:51:41');
 
 -- ----------------------------
@@ -115,7 +131,7 @@ CREATE TABLE `sys_role_menu`  (
   `menu_id` bigint(20) NOT NULL COMMENT '菜单ID',
   PRIMARY KEY (`id`) USING BTREE,
   UNIQUE INDEX `uk_role_menu`(`role_id` ASC, `menu_id` ASC) USING BTREE
-) ENGINE = InnoDB AUTO_INCREMENT = 139 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '角色菜单关联表' ROW_FORMAT = Dynamic;
+) ENGINE = InnoDB AUTO_INCREMENT = 161 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '角色菜单关联表' ROW_FORMAT = Dynamic;
 
 -- ----------------------------
 -- Records of sys_role_menu
@@ -141,6 +157,7 @@ INSERT INTO `sys_role_menu` VALUES (156, 1, 21);
 INSERT INTO `sys_role_menu` VALUES (157, 1, 22);
 INSERT INTO `sys_role_menu` VALUES (158, 1, 23);
 INSERT INTO `sys_role_menu` VALUES (159, 1, 100);
+INSERT INTO `sys_role_menu` VALUES (160, 1, 24);
 INSERT INTO `sys_role_menu` VALUES (131, 2, 1);
 INSERT INTO `sys_role_menu` VALUES (132, 2, 6);
 INSERT INTO `sys_role_menu` VALUES (133, 2, 7);
@@ -164,7 +181,8 @@ CREATE TABLE `sys_user`  (
   `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`) USING BTREE,
-  UNIQUE INDEX `uk_username`(`username` ASC) USING BTREE
+  UNIQUE INDEX `uk_username`(`username` ASC) USING BTREE,
+  INDEX `idx_create_time`(`create_time` ASC, `id` ASC) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 10 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '用户表' ROW_FORMAT = Dynamic;
 
 -- ----------------------------
@@ -193,4 +211,32 @@ INSERT INTO `sys_user_role` VALUES (1, 1, 1);
 INSERT INTO `sys_user_role` VALUES (2, 2, 2);
 INSERT INTO `sys_user_role` VALUES (3, 3, 3);
 
+-- ----------------------------
+-- 文件内容表(按SHA-256去重,引用计数归零时删除)
+-- ----------------------------
+DROP TABLE IF EXISTS `file_blob`;
+CREATE TABLE `file_blob` (
+  `sha256` char(64) NOT NULL COMMENT '内容SHA-256',
+  `file_size` bigint(20) NOT NULL COMMENT '内容大小(字节)',
+  `ref_count` int(11) NOT NULL DEFAULT '0' COMMENT '引用计数',
+  `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`sha256`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件内容表';
+
+-- ----------------------------
+-- 用户文件表
+-- ----------------------------
+DROP TABLE IF EXISTS `file_record`;
+CREATE TABLE `file_record` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '文件ID',
+  `user_id` bigint(20) DEFAULT NULL COMMENT '上传者ID',
+  `file_name` varchar(255) NOT NULL COMMENT '文件名',
+  `sha256` char(64) NOT NULL COMMENT '内容SHA-256',
+  `file_size` bigint(20) NOT NULL COMMENT '文件大小(字节)',
+  `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_user_time` (`user_id`, `create_time`, `id`),
+  KEY `idx_sha256` (`sha256`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户文件表';
+
 SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,60 @@
+package com.admin.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 用户权限快照缓存测试
+ */
+class PermissionCacheTest {
+
+    private final PermissionCache cache = new PermissionCache();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        ReflectionTestUtils.setField(cache, "ttl", 60000L);
+        cache.init();
+    }
+
+    @Test
+    void loadedSnapshotIsCached() {
+        PermissionSnapshot first = cache.get(1L, this::load);
+        assertThat(cache.get(1L, this::load)).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void evictionDuringLoadDiscardsResult() {
+        // 加载期间用户角色发生变更,旧结果不能写入缓存
+        cache.get(1L, userId -> {
+            cache.evictUser(userId);
+            return load(userId);
+        });
+        cache.get(1L, this::load);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void putIfChecksConditionUnderLock() {
+        ExpiringLruCache<Long, String> lru = new ExpiringLruCache<>(10);
+        long expireAt = System.currentTimeMillis() + 60000;
+        assertThat(lru.putIf(1L, "a", expireAt, () -> false)).isFalse();
+        assertThat(lru.get(1L)).isNull();
+        assertThat(lru.putIf(1L, "a", expireAt, () -> Thread.holdsLock(lru))).isTrue();
+        assertThat(lru.get(1L)).isEqualTo("a");
+    }
+
+    private PermissionSnapshot load(Long userId) {
+        loads.incrementAndGet();
+        return new PermissionSnapshot(List.of(userId));
+    }
+}
@@ -0,0 +1,114 @@
+package com.admin.cache;
+
+import com.admin.mapper.MenuMapper;
+import com.admin.mapper.RoleMenuMapper;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import javax.sql.DataSource;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 权限索引定时重建测试: 直接修改数据库模拟其他实例的变更
+ */
+@SpringJUnitConfig(PermissionIndexTest.Config.class)
+class PermissionIndexTest {
+
+    private static final Set<Long> ROLE = Set.of(1L);
+
+    @Autowired
+    private PermissionIndex permissionIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void grantUserList() {
+        jdbcTemplate.update("DELETE FROM sys_role_menu");
+        jdbcTemplate.update("UPDATE sys_menu SET permission = 'user:add' WHERE id = 2");
+        jdbcTemplate.update("INSERT INTO sys_role_menu (role_id, menu_id) VALUES (1, 1)");
+        permissionIndex.rebuild();
+    }
+
+    @Test
+    void refreshPicksUpChangesFromOtherNodes() {
+        assertThat(permissionIndex.permissionsOf(permissionIndex.union(ROLE))).containsExactly("user:list");
+
+        jdbcTemplate.update("INSERT INTO sys_role_menu (role_id, menu_id) VALUES (1, 2)");
+        jdbcTemplate.update("UPDATE sys_menu SET permission = 'user:create' WHERE id = 2");
+        permissionIndex.refresh();
+        assertThat(permissionIndex.permissionsOf(permissionIndex.union(ROLE)))
+                .containsExactlyInAnyOrder("user:list", "user:create");
+
+        jdbcTemplate.update("DELETE FROM sys_role_menu WHERE menu_id = 1");
+        permissionIndex.refresh();
+        assertThat(permissionIndex.permissionsOf(permissionIndex.union(ROLE))).containsExactly("user:create");
+    }
+
+    @Test
+    void refreshWithoutChangesKeepsVersion() {
+        long version = permissionIndex.version();
+        permissionIndex.refresh();
+        assertThat(permissionIndex.version()).isEqualTo(version);
+
+        jdbcTemplate.update("INSERT INTO sys_role_menu (role_id, menu_id) VALUES (1, 3)");
+        permissionIndex.refresh();
+        assertThat(permissionIndex.version()).isGreaterThan(version);
+    }
+
+    @Configuration
+    static class Config {
+
+        @Bean
+        public DataSource dataSource() {
+            return new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .setName("permission;MODE=MySQL")
+                    .addScript("permission.sql")
+                    .build();
+        }
+
+        @Bean
+        public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        public MybatisSqlSessionFactoryBean sqlSessionFactory(DataSource dataSource) {
+            MybatisSqlSessionFactoryBean factory = new MybatisSqlSessionFactoryBean();
+            factory.setDataSource(dataSource);
+            return factory;
+        }
+
+        @Bean
+        public MapperFactoryBean<MenuMapper> menuMapper(SqlSessionFactory sqlSessionFactory) {
+            MapperFactoryBean<MenuMapper> factory = new MapperFactoryBean<>(MenuMapper.class);
+            factory.setSqlSessionFactory(sqlSessionFactory);
+            return factory;
+        }
+
+        @Bean
+        public MapperFactoryBean<RoleMenuMapper> roleMenuMapper(SqlSessionFactory sqlSessionFactory) {
+            MapperFactoryBean<RoleMenuMapper> factory = new MapperFactoryBean<>(RoleMenuMapper.class);
+            factory.setSqlSessionFactory(sqlSessionFactory);
+            return factory;
+        }
+
+        @Bean
+        public PermissionIndex permissionIndex() {
+            return new PermissionIndex();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.admin.chat;
+
+import com.admin.entity.ChatMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 聊天会话尾部缓存测试
+ */
+class ChatHistoryCacheTest {
+
+    @Test
+    void appendedMessagesAreServedFromTail() {
+        ChatHistoryCache cache = cache("simple");
+        cache.load(List.of(message(1L)), cache.generation());
+        cache.append(List.of(message(2L)));
+
+        List<ChatMessage> rows = cache.before(null, null, 10);
+        assertThat(rows).extracting(ChatMessage::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void relayModeAlwaysQueriesDatabase() {
+        ChatHistoryCache cache = cache("relay");
+        cache.load(List.of(message(1L)), cache.generation());
+        cache.append(List.of(message(2L)));
+
+        assertThat(cache.before(null, null, 10)).isNull();
+    }
+
+    private static ChatHistoryCache cache(String brokerMode) {
+        ChatHistoryCache cache = new ChatHistoryCache(brokerMode);
+        ReflectionTestUtils.setField(cache, "tailSize", 10);
+        return cache;
+    }
+
+    private static ChatMessage message(Long id) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setSenderId(1L);
+        message.setSendTime(LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(id));
+        return message;
+    }
+}
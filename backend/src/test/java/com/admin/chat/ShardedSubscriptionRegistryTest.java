@@ -0,0 +1,65 @@
+package com.admin.chat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分片订阅注册表测试
+ */
+class ShardedSubscriptionRegistryTest {
+
+    private final ShardedSubscriptionRegistry registry = new ShardedSubscriptionRegistry(4);
+
+    @Test
+    void lastUnsubscribeRemovesSession() {
+        registry.registerSubscription(subscribe("s1", "sub1", "/topic/public"));
+        registry.registerSubscription(subscribe("s1", "sub2", "/topic/*"));
+        assertThat(registry.getSessionCount()).isEqualTo(1);
+        assertThat(registry.findSubscriptions(message("/topic/public")).get("s1")).containsExactlyInAnyOrder("sub1", "sub2");
+
+        registry.unregisterSubscription(unsubscribe("s1", "sub1"));
+        assertThat(registry.getSessionCount()).isEqualTo(1);
+        assertThat(registry.findSubscriptions(message("/topic/public")).get("s1")).containsExactly("sub2");
+
+        registry.unregisterSubscription(unsubscribe("s1", "sub2"));
+        assertThat(registry.getSessionCount()).isZero();
+        assertThat(registry.getSubscriptionCount()).isZero();
+        assertThat(registry.findSubscriptions(message("/topic/public"))).isEmpty();
+    }
+
+    @Test
+    void unregisterAllRemovesSession() {
+        registry.registerSubscription(subscribe("s1", "sub1", "/topic/public"));
+        registry.registerSubscription(subscribe("s2", "sub1", "/topic/public"));
+
+        registry.unregisterAllSubscriptions("s1");
+        assertThat(registry.getSessionCount()).isEqualTo(1);
+        assertThat(registry.findSubscriptions(message("/topic/public")).keySet()).containsExactly("s2");
+    }
+
+    private static Message<byte[]> subscribe(String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> unsubscribe(String sessionId, String subscriptionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.UNSUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> message(String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,34 @@
+package com.admin.common.exception;
+
+import com.admin.dto.ApiResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 全局异常处理测试
+ */
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void uncommittedResponseGetsErrorBody() throws Exception {
+        ApiResponse<Void> result = handler.handleException(new IllegalStateException("x"), new MockHttpServletResponse());
+        assertThat(result.getCode()).isNotEqualTo(ApiResponse.success().getCode());
+    }
+
+    @Test
+    void committedResponseRethrows() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.getOutputStream().write("{\"code\":200,\"data\":[".getBytes());
+        response.flushBuffer();
+        IllegalStateException failure = new IllegalStateException("游标读取失败");
+
+        assertThatThrownBy(() -> handler.handleException(failure, response)).isSameAs(failure);
+    }
+}
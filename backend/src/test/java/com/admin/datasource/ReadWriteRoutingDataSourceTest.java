@@ -0,0 +1,268 @@
+package com.admin.datasource;
+
+import com.admin.annotation.ReplicaRead;
+import com.admin.config.DataSourceConfig;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 读写分离路由测试
+ * 主库和副本是两个H2内存库,表t中分别只有一行 'primary' / 'replica',查询结果即路由到的库
+ */
+@SpringJUnitConfig(ReadWriteRoutingDataSourceTest.Config.class)
+@TestPropertySource(properties = {
+        "datasource.replica.enabled=true",
+        "datasource.replica.url=" + ReadWriteRoutingDataSourceTest.REPLICA_URL,
+        "datasource.replica.username=sa",
+        "datasource.replica.lag-query=SELECT seconds FROM replica_lag",
+        "datasource.replica.max-lag-seconds=2",
+        "datasource.replica.lag-check-interval=3600000"
+})
+class ReadWriteRoutingDataSourceTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private RoutingService service;
+
+    @Autowired
+    private ReplicaMonitor monitor;
+
+    @BeforeAll
+    static void createDatabases() {
+        new ResourceDatabasePopulator(new ClassPathResource("routing/primary.sql"))
+                .execute(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+        new ResourceDatabasePopulator(new ClassPathResource("routing/replica.sql"))
+                .execute(REPLICA.getDataSource());
+    }
+
+    @AfterEach
+    void resetReplica() {
+        RequestContextHolder.resetRequestAttributes();
+        REPLICA.update("UPDATE replica_lag SET seconds = 0");
+        monitor.check();
+    }
+
+    @Test
+    void readMethodsUseReplica() {
+        assertThat(monitor.isAvailable()).isTrue();
+        assertThat(service.annotatedRead()).isEqualTo("replica");
+        assertThat(service.readOnlyTransaction()).isEqualTo("replica");
+    }
+
+    @Test
+    void writesAndUnannotatedMethodsUsePrimary() {
+        assertThat(service.plainRead()).isEqualTo("primary");
+        assertThat(service.writeTransaction()).isEqualTo("primary");
+        // 只读方法内开启的写事务仍在主库
+        assertThat(service.writeFromReadMethod()).isEqualTo("primary");
+    }
+
+    @Test
+    void readAfterWriteInSameRequestUsesPrimary() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(service.annotatedRead()).isEqualTo("replica");
+        assertThat(ReadRoute.isWritten()).isFalse();
+
+        service.write();
+        assertThat(ReadRoute.isWritten()).isTrue();
+        assertThat(service.annotatedRead()).isEqualTo("primary");
+        assertThat(service.readOnlyTransaction()).isEqualTo("primary");
+
+        // 新请求不受上一个请求的写操作影响
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(service.annotatedRead()).isEqualTo("replica");
+    }
+
+    @Test
+    void lagAboveLimitFallsBackToPrimary() {
+        REPLICA.update("UPDATE replica_lag SET seconds = 5");
+        monitor.check();
+        assertThat(monitor.isAvailable()).isFalse();
+        assertThat(service.annotatedRead()).isEqualTo("primary");
+
+        REPLICA.update("UPDATE replica_lag SET seconds = 1");
+        monitor.check();
+        assertThat(service.annotatedRead()).isEqualTo("replica");
+    }
+
+    @Test
+    void stoppedReplicationFallsBackToPrimary() {
+        REPLICA.update("UPDATE replica_lag SET seconds = NULL");
+        monitor.check();
+        assertThat(monitor.isAvailable()).isFalse();
+        assertThat(service.readOnlyTransaction()).isEqualTo("primary");
+    }
+
+    @Test
+    void replicaConnectFailureFallsBackToPrimary() throws SQLException {
+        DataSource primary = new DriverManagerDataSource(PRIMARY_URL, "sa", "");
+        FailingDataSource replica = new FailingDataSource(REPLICA_URL);
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setLagQuery("");
+        ReplicaMonitor replicaMonitor = new ReplicaMonitor();
+        replicaMonitor.watch(replica, properties);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, replicaMonitor);
+        assertThat(replicaMonitor.isAvailable()).isTrue();
+
+        Boolean previous = ReadRoute.enter(true);
+        try {
+            assertThat(query(routing)).isEqualTo("replica");
+            replica.failing = true;
+            assertThat(query(routing)).isEqualTo("primary");
+            assertThat(replicaMonitor.isAvailable()).isFalse();
+        } finally {
+            ReadRoute.exit(previous);
+        }
+    }
+
+    private static String query(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                    .queryForObject("SELECT v FROM t", String.class);
+        }
+    }
+
+    /**
+     * 可以模拟连接失败的副本
+     */
+    private static class FailingDataSource extends DriverManagerDataSource {
+        private volatile boolean failing;
+
+        FailingDataSource(String url) {
+            super(url, "sa", "");
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failing) {
+                throw new SQLException("副本不可连接");
+            }
+            return super.getConnection();
+        }
+    }
+
+    public interface RoutingMapper {
+
+        @Select("SELECT v FROM t")
+        String read();
+
+        @Insert("INSERT INTO w (v) VALUES ('x')")
+        int write();
+    }
+
+    public static class RoutingService {
+
+        @Autowired
+        private RoutingMapper mapper;
+
+        @Autowired
+        @Lazy
+        private RoutingService self;
+
+        @ReplicaRead
+        public String annotatedRead() {
+            return mapper.read();
+        }
+
+        @Transactional(readOnly = true)
+        public String readOnlyTransaction() {
+            return mapper.read();
+        }
+
+        public String plainRead() {
+            return mapper.read();
+        }
+
+        public void write() {
+            mapper.write();
+        }
+
+        @Transactional
+        public String writeTransaction() {
+            mapper.write();
+            return mapper.read();
+        }
+
+        @ReplicaRead
+        public String writeFromReadMethod() {
+            return self.writeTransaction();
+        }
+    }
+
+    @Configuration
+    @Import({DataSourceConfig.class, ConnectionProfiler.class, ReplicaMonitor.class})
+    @EnableConfigurationProperties
+    @EnableTransactionManagement
+    static class Config {
+
+        @Bean
+        public DataSourceProperties dataSourceProperties() {
+            DataSourceProperties properties = new DataSourceProperties();
+            properties.setUrl(PRIMARY_URL);
+            properties.setUsername("sa");
+            return properties;
+        }
+
+        @Bean
+        public DataSourceTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        public MybatisSqlSessionFactoryBean sqlSessionFactory(DataSource dataSource, WriteTrackingInterceptor interceptor) {
+            MybatisSqlSessionFactoryBean factory = new MybatisSqlSessionFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPlugins(interceptor);
+            return factory;
+        }
+
+        @Bean
+        public MapperFactoryBean<RoutingMapper> routingMapper(SqlSessionFactory sqlSessionFactory) {
+            MapperFactoryBean<RoutingMapper> factory = new MapperFactoryBean<>(RoutingMapper.class);
+            factory.setSqlSessionFactory(sqlSessionFactory);
+            return factory;
+        }
+
+        @Bean
+        public RoutingService routingService() {
+            return new RoutingService();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.admin.excel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 导入任务分页读取测试
+ */
+class ImportJobTest {
+
+    private ImportJob job;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        job = new ImportJob("job", 1L, "a.xlsx", Files.createTempFile("import-test-", ".xlsx"), new ObjectMapper());
+        job.start();
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 1; i <= 25; i++) {
+            rows.add(List.of("r" + i, "v" + i));
+        }
+        job.append(rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        job.cleanup();
+    }
+
+    @Test
+    void readsRequestedPage() throws IOException {
+        assertThat(job.readRows(1, 10)).hasSize(10).first().isEqualTo(List.of("r1", "v1"));
+        assertThat(job.readRows(3, 10)).extracting(row -> row.get(0)).containsExactly("r21", "r22", "r23", "r24", "r25");
+        assertThat(job.readRows(4, 10)).isEmpty();
+    }
+
+    @Test
+    void hugePageDoesNotOverflow() throws IOException {
+        // int计算时 (page - 1) * size 会回绕为负数或较小的偏移
+        assertThat(job.readRows(Integer.MAX_VALUE, 100)).isEmpty();
+        assertThat(job.readRows(42949673, 100)).isEmpty();
+        assertThat(job.readRows(2, Integer.MAX_VALUE)).isEmpty();
+    }
+}
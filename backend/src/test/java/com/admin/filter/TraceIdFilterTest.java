@@ -0,0 +1,51 @@
+package com.admin.filter;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 请求追踪过滤器测试
+ */
+class TraceIdFilterTest {
+
+    private final TraceIdFilter filter = new TraceIdFilter();
+
+    @Test
+    void validClientTraceIdIsKept() throws Exception {
+        assertThat(filter("abc-123_X.9")).isEqualTo("abc-123_X.9");
+    }
+
+    @Test
+    void invalidClientTraceIdIsReplaced() throws Exception {
+        for (String traceId : new String[]{"", "a b", "abc\r\nfake log line", "中文", "a".repeat(65), "id;rm"}) {
+            assertThat(filter(traceId)).as(traceId).isNotEqualTo(traceId).matches("[0-9a-f]{16}");
+        }
+    }
+
+    /**
+     * 执行过滤器,返回请求期间MDC中的traceId(与响应头一致)
+     */
+    private String filter(String clientTraceId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Trace-Id", clientTraceId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> logged = new AtomicReference<>();
+        filter.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest req, ServletResponse res) {
+                logged.set(MDC.get(TraceIdFilter.TRACE_ID));
+            }
+        });
+        assertThat(response.getHeader("X-Trace-Id")).isEqualTo(logged.get());
+        return logged.get();
+    }
+}
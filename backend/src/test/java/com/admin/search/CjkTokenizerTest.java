@@ -0,0 +1,28 @@
+package com.admin.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分词测试: 单字查询必须能命中建索引时切出的词
+ */
+class CjkTokenizerTest {
+
+    @Test
+    void indexEmitsUnigramsAndBigrams() {
+        assertThat(CjkTokenizer.tokenize("张三丰 Spring Boot"))
+                .containsExactly("张", "三", "丰", "张三", "三丰", "spring", "boot");
+    }
+
+    @Test
+    void queryUsesBigramsForLongerRuns() {
+        assertThat(CjkTokenizer.tokenizeQuery("张三丰")).containsExactly("张三", "三丰");
+    }
+
+    @Test
+    void singleCharacterQueryMatchesIndexedText() {
+        assertThat(CjkTokenizer.tokenizeQuery("张")).containsExactly("张");
+        assertThat(CjkTokenizer.tokenize("张三丰的太极拳")).contains("张");
+    }
+}
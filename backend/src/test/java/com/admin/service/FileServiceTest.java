@@ -0,0 +1,121 @@
+package com.admin.service;
+
+import com.admin.entity.FileRecord;
+import com.admin.mapper.FileBlobMapper;
+import com.admin.mapper.FileRecordMapper;
+import com.admin.upload.BlobStore;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 秒传测试: 只凭SHA-256和大小不能拿到其他用户的文件
+ */
+@SpringJUnitConfig(FileServiceTest.Config.class)
+@TestPropertySource(properties = "upload.dir=target/test-uploads")
+class FileServiceTest {
+
+    private static final long OWNER = 1L;
+
+    private static final long OTHER = 2L;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void instantUploadOnlyForOwnContent() throws IOException {
+        byte[] content = "秒传测试内容".getBytes(StandardCharsets.UTF_8);
+        Path temp = blobStore.createTempFile("test-");
+        Files.write(temp, content);
+        String sha256 = BlobStore.sha256(temp);
+        fileService.store(temp, sha256, content.length, "a.txt", OWNER);
+
+        // 其他用户和未登录用户需要上传内容
+        assertThat(fileService.addReference(sha256, content.length, "a.txt", OTHER)).isNull();
+        assertThat(fileService.addReference(sha256, content.length, "a.txt", null)).isNull();
+        // 大小不符时不秒传
+        assertThat(fileService.addReference(sha256, content.length + 1, "a.txt", OWNER)).isNull();
+        assertThat(refCount(sha256)).isEqualTo(1);
+
+        FileRecord copy = fileService.addReference(sha256, content.length, "b.txt", OWNER);
+        assertThat(copy).isNotNull();
+        assertThat(copy.getUserId()).isEqualTo(OWNER);
+        assertThat(refCount(sha256)).isEqualTo(2);
+    }
+
+    private int refCount(String sha256) {
+        return jdbcTemplate.queryForObject("SELECT ref_count FROM file_blob WHERE sha256 = ?", Integer.class, sha256);
+    }
+
+    @Configuration
+    static class Config {
+
+        @Bean
+        public DataSource dataSource() {
+            return new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .setName("file;MODE=MySQL")
+                    .addScript("file.sql")
+                    .build();
+        }
+
+        @Bean
+        public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        public MybatisSqlSessionFactoryBean sqlSessionFactory(DataSource dataSource) {
+            MybatisSqlSessionFactoryBean factory = new MybatisSqlSessionFactoryBean();
+            factory.setDataSource(dataSource);
+            return factory;
+        }
+
+        @Bean
+        public MapperFactoryBean<FileRecordMapper> fileRecordMapper(SqlSessionFactory sqlSessionFactory) {
+            MapperFactoryBean<FileRecordMapper> factory = new MapperFactoryBean<>(FileRecordMapper.class);
+            factory.setSqlSessionFactory(sqlSessionFactory);
+            return factory;
+        }
+
+        @Bean
+        public MapperFactoryBean<FileBlobMapper> fileBlobMapper(SqlSessionFactory sqlSessionFactory) {
+            MapperFactoryBean<FileBlobMapper> factory = new MapperFactoryBean<>(FileBlobMapper.class);
+            factory.setSqlSessionFactory(sqlSessionFactory);
+            return factory;
+        }
+
+        @Bean
+        public BlobStore blobStore() {
+            return new BlobStore();
+        }
+
+        @Bean
+        public FileService fileService() {
+            return new FileService();
+        }
+    }
+}
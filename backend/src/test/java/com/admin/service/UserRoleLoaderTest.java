@@ -0,0 +1,178 @@
+package com.admin.service;
+
+import com.admin.entity.Role;
+import com.admin.entity.User;
+import com.admin.mapper.RoleMapper;
+import com.admin.mapper.UserRoleMapper;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 用户角色批量加载测试: 无论用户数量多少,填充角色固定执行两条SQL
+ */
+@SpringJUnitConfig(UserRoleLoaderTest.Config.class)
+class UserRoleLoaderTest {
+
+    private static final int USERS = 50;
+
+    @Autowired
+    private UserRoleLoader userRoleLoader;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void assignRoles() {
+        jdbcTemplate.update("DELETE FROM sys_user_role");
+        for (long userId = 1; userId <= USERS; userId++) {
+            // 每个用户都有普通用户角色,偶数用户再加访客角色
+            jdbcTemplate.update("INSERT INTO sys_user_role (user_id, role_id) VALUES (?, 2)", userId);
+            if (userId % 2 == 0) {
+                jdbcTemplate.update("INSERT INTO sys_user_role (user_id, role_id) VALUES (?, 3)", userId);
+            }
+        }
+    }
+
+    @Test
+    void fillRolesRunsTwoQueriesRegardlessOfUserCount() {
+        for (int count : new int[]{1, 10, USERS}) {
+            List<User> users = users(count);
+            statementCounter.reset();
+            userRoleLoader.fillRoles(users);
+            assertThat(statementCounter.get()).as("%d个用户执行的SQL数", count).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void fillRolesAssignsRolesOfEachUser() {
+        List<User> users = users(4);
+        users.add(user(USERS + 1));
+        userRoleLoader.fillRoles(users);
+
+        assertThat(users.get(0).getRoles()).extracting(Role::getRoleCode).containsExactly("ROLE_USER");
+        assertThat(users.get(1).getRoles()).extracting(Role::getRoleCode)
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_GUEST");
+        // 没有角色的用户不填充
+        assertThat(users.get(4).getRoles()).isNull();
+    }
+
+    @Test
+    void fillRolesWithoutUsersRunsNoQuery() {
+        statementCounter.reset();
+        userRoleLoader.fillRoles(new ArrayList<>());
+        assertThat(statementCounter.get()).isZero();
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            users.add(user(id));
+        }
+        return users;
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    /**
+     * 统计实际发往数据库的语句数
+     */
+    @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+    static class StatementCounter implements Interceptor {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            count.incrementAndGet();
+            return invocation.proceed();
+        }
+
+        int get() {
+            return count.get();
+        }
+
+        void reset() {
+            count.set(0);
+        }
+    }
+
+    @Configuration
+    static class Config {
+
+        @Bean
+        public DataSource dataSource() {
+            return new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2)
+                    .setName("user-role;MODE=MySQL")
+                    .addScript("user-role.sql")
+                    .build();
+        }
+
+        @Bean
+        public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        public StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+
+        @Bean
+        public MybatisSqlSessionFactoryBean sqlSessionFactory(DataSource dataSource, StatementCounter statementCounter) {
+            MybatisSqlSessionFactoryBean factory = new MybatisSqlSessionFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPlugins(statementCounter);
+            return factory;
+        }
+
+        @Bean
+        public MapperFactoryBean<UserRoleMapper> userRoleMapper(SqlSessionFactory sqlSessionFactory) {
+            MapperFactoryBean<UserRoleMapper> factory = new MapperFactoryBean<>(UserRoleMapper.class);
+            factory.setSqlSessionFactory(sqlSessionFactory);
+            return factory;
+        }
+
+        @Bean
+        public MapperFactoryBean<RoleMapper> roleMapper(SqlSessionFactory sqlSessionFactory) {
+            MapperFactoryBean<RoleMapper> factory = new MapperFactoryBean<>(RoleMapper.class);
+            factory.setSqlSessionFactory(sqlSessionFactory);
+            return factory;
+        }
+
+        @Bean
+        public UserRoleLoader userRoleLoader() {
+            return new UserRoleLoader();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+CREATE TABLE file_blob (
+  sha256 char(64) NOT NULL,
+  file_size bigint NOT NULL,
+  ref_count int NOT NULL DEFAULT 0,
+  create_time datetime DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (sha256)
+);
+
+CREATE TABLE file_record (
+  id bigint NOT NULL AUTO_INCREMENT,
+  user_id bigint DEFAULT NULL,
+  file_name varchar(255) NOT NULL,
+  sha256 char(64) NOT NULL,
+  file_size bigint NOT NULL,
+  create_time datetime DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (id)
+);
@@ -0,0 +1,14 @@
+CREATE TABLE sys_menu (
+  id bigint NOT NULL AUTO_INCREMENT,
+  title varchar(50),
+  permission varchar(100),
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE sys_role_menu (
+  role_id bigint NOT NULL,
+  menu_id bigint NOT NULL,
+  PRIMARY KEY (role_id, menu_id)
+);
+
+INSERT INTO sys_menu (id, title, permission) VALUES (1, '用户列表', 'user:list'), (2, '新增用户', 'user:add'), (3, '文章列表', 'article:list');
@@ -0,0 +1,4 @@
+-- 读写分离测试的主库: t 中的值标识查询落在哪个库
+CREATE TABLE t (v VARCHAR(20));
+CREATE TABLE w (v VARCHAR(20));
+INSERT INTO t VALUES ('primary');
@@ -0,0 +1,6 @@
+-- 读写分离测试的副本: replica_lag 模拟复制延迟(秒),NULL表示复制未运行
+CREATE TABLE t (v VARCHAR(20));
+CREATE TABLE w (v VARCHAR(20));
+CREATE TABLE replica_lag (id INT PRIMARY KEY, seconds INT);
+INSERT INTO t VALUES ('replica');
+INSERT INTO replica_lag VALUES (1, 0);
@@ -0,0 +1,19 @@
+-- 用户角色加载测试的表结构(与data.sql中的对应表一致)
+CREATE TABLE sys_role (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  role_name VARCHAR(50) NOT NULL,
+  role_code VARCHAR(50) NOT NULL,
+  description VARCHAR(255),
+  create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+  update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE sys_user_role (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+  role_id BIGINT NOT NULL
+);
+
+INSERT INTO sys_role (id, role_name, role_code) VALUES (1, '超级管理员', 'ROLE_ADMIN');
+INSERT INTO sys_role (id, role_name, role_code) VALUES (2, '普通用户', 'ROLE_USER');
+INSERT INTO sys_role (id, role_name, role_code) VALUES (3, '访客', 'ROLE_GUEST');